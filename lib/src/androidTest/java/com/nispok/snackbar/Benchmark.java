@@ -0,0 +1,134 @@
+package com.nispok.snackbar;
+
+import android.os.Debug;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal timing and allocation counting harness for the benchmark tests. Each run of an
+ * {@link Operation} is timed with {@link System#nanoTime()} and its allocations counted with
+ * {@link Debug#getThreadAllocCount()}; only {@link Operation#run()} is measured.
+ */
+class Benchmark {
+
+    static abstract class Operation {
+        void setUp() {
+        }
+
+        abstract void run();
+
+        void tearDown() {
+        }
+    }
+
+    static class Result {
+        final String name;
+        final Map<String, String> params;
+        final int iterations;
+        final int operationsPerRun;
+        final long minNanos;
+        final long medianNanos;
+        final long maxNanos;
+        final double meanAllocations;
+        final int maxAllocations;
+
+        private Result(String name, Map<String, String> params, int operationsPerRun,
+                       long[] nanos, int[] allocations) {
+            this.name = name;
+            this.params = params;
+            this.iterations = nanos.length;
+            this.operationsPerRun = operationsPerRun;
+
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            minNanos = sorted[0];
+            medianNanos = sorted[sorted.length / 2];
+            maxNanos = sorted[sorted.length - 1];
+
+            long total = 0;
+            int max = 0;
+            for (int count : allocations) {
+                total += count;
+                max = Math.max(max, count);
+            }
+            meanAllocations = (double) total / allocations.length;
+            maxAllocations = max;
+        }
+
+        double meanAllocationsPerOperation() {
+            return meanAllocations / operationsPerRun;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + params + ": median " + medianNanos + "ns, "
+                    + meanAllocations + " allocations";
+        }
+    }
+
+    private final String mName;
+    private final Map<String, String> mParams = new LinkedHashMap<String, String>();
+    private int mWarmups = 10;
+    private int mIterations = 50;
+    private int mOperationsPerRun = 1;
+
+    Benchmark(String name) {
+        mName = name;
+    }
+
+    Benchmark param(String key, Object value) {
+        mParams.put(key, String.valueOf(value));
+        return this;
+    }
+
+    Benchmark warmups(int warmups) {
+        mWarmups = warmups;
+        return this;
+    }
+
+    Benchmark iterations(int iterations) {
+        mIterations = iterations;
+        return this;
+    }
+
+    /**
+     * Sets how many operations (e.g. touch events) a single {@link Operation#run()} performs, to
+     * report allocations per operation
+     */
+    Benchmark operationsPerRun(int operationsPerRun) {
+        mOperationsPerRun = operationsPerRun;
+        return this;
+    }
+
+    /**
+     * Runs the operation, which must be safe to call on the current thread
+     */
+    Result run(Operation operation) {
+        for (int i = 0; i < mWarmups; i++) {
+            operation.setUp();
+            operation.run();
+            operation.tearDown();
+        }
+
+        long[] nanos = new long[mIterations];
+        int[] allocations = new int[mIterations];
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < mIterations; i++) {
+                operation.setUp();
+                Debug.resetThreadAllocCount();
+                long start = System.nanoTime();
+                operation.run();
+                nanos[i] = System.nanoTime() - start;
+                allocations[i] = Debug.getThreadAllocCount();
+                operation.tearDown();
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return new Result(mName, new LinkedHashMap<String, String>(mParams), mOperationsPerRun,
+                nanos, allocations);
+    }
+}
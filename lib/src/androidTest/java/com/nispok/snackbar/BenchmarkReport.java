@@ -0,0 +1,134 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects {@link Benchmark.Result}s and writes them as JSON, so runs can be compared over time.
+ * There's one report per suite and process, shared by all the tests of the suite, so each write
+ * has the results of every test run so far. The report ends up in the target app's external
+ * files directory (or internal files directory when there's no external storage) and is also
+ * logged under the {@value #TAG} tag.
+ */
+class BenchmarkReport {
+
+    private static final String TAG = "SnackbarBenchmark";
+
+    private static final Map<String, BenchmarkReport> REPORTS =
+            new HashMap<String, BenchmarkReport>();
+
+    private final String mSuite;
+    private final JSONArray mResults = new JSONArray();
+
+    private BenchmarkReport(String suite) {
+        mSuite = suite;
+    }
+
+    /**
+     * @return the report of {@code suite}, created on first use
+     */
+    static synchronized BenchmarkReport forSuite(String suite) {
+        BenchmarkReport report = REPORTS.get(suite);
+        if (report == null) {
+            report = new BenchmarkReport(suite);
+            REPORTS.put(suite, report);
+        }
+        return report;
+    }
+
+    Benchmark.Result add(Benchmark.Result result) {
+        try {
+            JSONObject json = new JSONObject();
+            json.put("name", result.name);
+            json.put("params", new JSONObject(result.params));
+            json.put("iterations", result.iterations);
+            json.put("minNs", result.minNanos);
+            json.put("medianNs", result.medianNanos);
+            json.put("maxNs", result.maxNanos);
+            json.put("meanAllocations", result.meanAllocations);
+            json.put("maxAllocations", result.maxAllocations);
+            json.put("operationsPerRun", result.operationsPerRun);
+            json.put("meanAllocationsPerOperation", result.meanAllocationsPerOperation());
+            mResults.put(json);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        Log.i(TAG, result.toString());
+        return result;
+    }
+
+    /**
+     * Adds a measurement that can only be taken once per process, such as the first show
+     */
+    void addSingle(String name, long nanos) {
+        try {
+            JSONObject json = new JSONObject();
+            json.put("name", name);
+            json.put("ns", nanos);
+            mResults.put(json);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        Log.i(TAG, name + ": " + nanos + "ns");
+    }
+
+    /**
+     * Adds the frame timing of an animation driven by the library
+     */
+    void addFrames(String name, int frameCount, long longestFrameNanos) {
+        try {
+            JSONObject json = new JSONObject();
+            json.put("name", name);
+            json.put("frameCount", frameCount);
+            json.put("longestFrameNs", longestFrameNanos);
+            mResults.put(json);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        Log.i(TAG, name + ": " + frameCount + " frames, longest " + longestFrameNanos + "ns");
+    }
+
+    /**
+     * Writes the report to {@code <suite>.json} and logs it
+     *
+     * @return the file the report was written to
+     */
+    File write(Context context) throws IOException {
+        String json;
+        try {
+            JSONObject report = new JSONObject();
+            report.put("suite", mSuite);
+            report.put("device", android.os.Build.MODEL);
+            report.put("sdk", android.os.Build.VERSION.SDK_INT);
+            report.put("results", mResults);
+            json = report.toString(2);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+
+        File dir = context.getExternalFilesDir(null);
+        if (dir == null) {
+            dir = context.getFilesDir();
+        }
+        File file = new File(dir, mSuite + ".json");
+        Writer writer = new FileWriter(file);
+        try {
+            writer.write(json);
+        } finally {
+            writer.close();
+        }
+        Log.i(TAG, "Wrote " + mResults.length() + " results to " + file);
+        return file;
+    }
+}
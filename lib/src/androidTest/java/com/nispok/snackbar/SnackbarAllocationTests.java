@@ -0,0 +1,83 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.widget.FrameLayout;
+
+import com.nispok.snackbar.listeners.ActionClickListener;
+import com.nispok.snackbar.listeners.EventListenerAdapter;
+
+/**
+ * Fails when showing and dismissing a warm {@link Snackbar} allocates more than a fixed budget.
+ * Callbacks, animations and timer entries are reused between cycles, so what's left is mostly the
+ * new layout params and the work {@link android.widget.TextView#setText(CharSequence)} does.
+ */
+public class SnackbarAllocationTests extends InstrumentationTestCase {
+
+    /**
+     * Maximum number of allocations for one show + dismiss cycle of a warm Snackbar
+     */
+    private static final int SHOW_DISMISS_ALLOCATION_BUDGET = 32;
+
+    private Context mContext;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SnackbarManager.setInstantAnimations(false);
+        super.tearDown();
+    }
+
+    public void testInstantAnimationShowDismissCycleStaysWithinBudget() {
+        SnackbarManager.setInstantAnimations(true);
+
+        assertWithinBudget(newSnackbar(), "instantAnimations");
+    }
+
+    public void testNonAnimatedShowDismissCycleStaysWithinBudget() {
+        assertWithinBudget(newSnackbar().animation(false), "notAnimated");
+    }
+
+    private void assertWithinBudget(final Snackbar snackbar, String name) {
+        final FrameLayout parent = new FrameLayout(mContext);
+        final Benchmark benchmark = new Benchmark("showDismissCycle")
+                .param("mode", name)
+                .warmups(20)
+                .iterations(100);
+        final Benchmark.Result[] result = new Benchmark.Result[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = benchmark.run(new Benchmark.Operation() {
+                    @Override
+                    void run() {
+                        SnackbarManager.show(snackbar, parent, true);
+                        SnackbarManager.dismiss();
+                    }
+                });
+            }
+        });
+
+        assertTrue(result[0].toString(), snackbar.isDismissed());
+        assertTrue("Allocation budget exceeded: " + result[0],
+                result[0].maxAllocations <= SHOW_DISMISS_ALLOCATION_BUDGET);
+    }
+
+    private Snackbar newSnackbar() {
+        return Snackbar.with(mContext)
+                .text("Item deleted")
+                .actionLabel("Undo")
+                .actionListener(new ActionClickListener() {
+                    @Override
+                    public void onActionClicked(Snackbar snackbar) {
+                    }
+                })
+                .eventListener(new EventListenerAdapter() {
+                });
+    }
+}
@@ -0,0 +1,221 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.test.InstrumentationTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.nispok.snackbar.enums.SnackbarType;
+
+/**
+ * Benchmarks the show/dismiss lifecycle of a {@link Snackbar} for every {@link SnackbarType},
+ * position and phone/tablet layout. Animations are made instant so only the library's own work is
+ * measured. Results are written to {@code snackbar-lifecycle.json}, see {@link BenchmarkReport}.
+ */
+@LargeTest
+public class SnackbarLifecycleBenchmarkTests extends InstrumentationTestCase {
+
+    private static final int WIDTH = 720;
+    private static final int HEIGHT = 1280;
+    private static final int[] POSITIONS = {Snackbar.TOP, Snackbar.BOTTOM};
+    private static final boolean[] PHONE_LAYOUTS = {true, false};
+
+    private Context mContext;
+    private BenchmarkReport mReport;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    private interface OperationFactory {
+        Benchmark.Operation create(SnackbarType type, int position, boolean usePhoneLayout);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+        mReport = BenchmarkReport.forSuite("snackbar-lifecycle");
+        mBitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+        SnackbarManager.setInstantAnimations(true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SnackbarManager.setInstantAnimations(false);
+        mBitmap.recycle();
+        mReport.write(getInstrumentation().getTargetContext());
+        super.tearDown();
+    }
+
+    public void testConstruction() {
+        for (final SnackbarType type : SnackbarType.values()) {
+            for (final int position : POSITIONS) {
+                measure(new Benchmark("construct").param("type", type).param("position",
+                        positionName(position)), new Benchmark.Operation() {
+                    @Override
+                    void run() {
+                        newSnackbar(type, position);
+                    }
+                });
+            }
+        }
+    }
+
+    public void testShow() {
+        forEachConfiguration("show", new OperationFactory() {
+            @Override
+            public Benchmark.Operation create(final SnackbarType type, final int position,
+                                              final boolean usePhoneLayout) {
+                return new Benchmark.Operation() {
+                    private Snackbar mSnackbar;
+                    private FrameLayout mParent;
+
+                    @Override
+                    void setUp() {
+                        mSnackbar = newSnackbar(type, position);
+                        mParent = new FrameLayout(mContext);
+                    }
+
+                    @Override
+                    void run() {
+                        mSnackbar.show(mParent, usePhoneLayout);
+                    }
+
+                    @Override
+                    void tearDown() {
+                        mSnackbar.dismiss();
+                    }
+                };
+            }
+        });
+    }
+
+    public void testShowToFirstDraw() {
+        forEachConfiguration("showToFirstDraw", new OperationFactory() {
+            @Override
+            public Benchmark.Operation create(final SnackbarType type, final int position,
+                                              final boolean usePhoneLayout) {
+                return new Benchmark.Operation() {
+                    private Snackbar mSnackbar;
+                    private FrameLayout mParent;
+
+                    @Override
+                    void setUp() {
+                        mSnackbar = newSnackbar(type, position);
+                        mParent = new FrameLayout(mContext);
+                    }
+
+                    @Override
+                    void run() {
+                        mSnackbar.show(mParent, usePhoneLayout);
+                        draw(mParent);
+                    }
+
+                    @Override
+                    void tearDown() {
+                        mSnackbar.dismiss();
+                    }
+                };
+            }
+        });
+    }
+
+    public void testReplace() {
+        forEachConfiguration("replace", new OperationFactory() {
+            @Override
+            public Benchmark.Operation create(final SnackbarType type, final int position,
+                                              final boolean usePhoneLayout) {
+                return new Benchmark.Operation() {
+                    private Snackbar mReplacement;
+                    private FrameLayout mParent;
+
+                    @Override
+                    void setUp() {
+                        mParent = new FrameLayout(mContext);
+                        SnackbarManager.show(newSnackbar(type, position), mParent, usePhoneLayout);
+                        mReplacement = newSnackbar(type, position);
+                    }
+
+                    @Override
+                    void run() {
+                        SnackbarManager.show(mReplacement, mParent, usePhoneLayout);
+                    }
+
+                    @Override
+                    void tearDown() {
+                        SnackbarManager.dismiss();
+                    }
+                };
+            }
+        });
+    }
+
+    public void testDismiss() {
+        forEachConfiguration("dismiss", new OperationFactory() {
+            @Override
+            public Benchmark.Operation create(final SnackbarType type, final int position,
+                                              final boolean usePhoneLayout) {
+                return new Benchmark.Operation() {
+                    private Snackbar mSnackbar;
+
+                    @Override
+                    void setUp() {
+                        mSnackbar = newSnackbar(type, position);
+                        mSnackbar.show(new FrameLayout(mContext), usePhoneLayout);
+                    }
+
+                    @Override
+                    void run() {
+                        // with instant animations this goes straight to finish()
+                        mSnackbar.dismiss();
+                    }
+                };
+            }
+        });
+    }
+
+    private void forEachConfiguration(String name, OperationFactory factory) {
+        for (SnackbarType type : SnackbarType.values()) {
+            for (int position : POSITIONS) {
+                for (boolean usePhoneLayout : PHONE_LAYOUTS) {
+                    Benchmark benchmark = new Benchmark(name)
+                            .param("type", type)
+                            .param("position", positionName(position))
+                            .param("layout", usePhoneLayout ? "phone" : "tablet");
+                    measure(benchmark, factory.create(type, position, usePhoneLayout));
+                }
+            }
+        }
+    }
+
+    private void measure(final Benchmark benchmark, final Benchmark.Operation operation) {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mReport.add(benchmark.run(operation));
+            }
+        });
+    }
+
+    private Snackbar newSnackbar(SnackbarType type, int position) {
+        return Snackbar.with(mContext)
+                .text("Benchmark")
+                .actionLabel("Action")
+                .type(type)
+                .position(position);
+    }
+
+    private void draw(View parent) {
+        parent.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        parent.layout(0, 0, WIDTH, HEIGHT);
+        parent.draw(mCanvas);
+    }
+
+    private static String positionName(int position) {
+        return position == Snackbar.TOP ? "top" : "bottom";
+    }
+}
@@ -0,0 +1,1046 @@
+package com.nispok.snackbar;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.view.View;
+import android.widget.AbsListView;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import com.nispok.snackbar.enums.DismissReason;
+import com.nispok.snackbar.enums.SnackbarEventType;
+import com.nispok.snackbar.enums.SnackbarPriority;
+import com.nispok.snackbar.enums.SnackbarState;
+import com.nispok.snackbar.listeners.ActionClickListener;
+import com.nispok.snackbar.listeners.AsyncEventListener;
+import com.nispok.snackbar.listeners.EventListener;
+import com.nispok.snackbar.listeners.EventListenerAdapter;
+import com.nispok.snackbar.listeners.ListenerBudgetCallback;
+import com.nispok.snackbar.listeners.OffsetListener;
+import com.nispok.snackbar.listeners.ResultListener;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class SnackbarManagerTests extends InstrumentationTestCase {
+
+    private Context mContext;
+    private EventListener mGlobalListener;
+    private View mAnchorView;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SnackbarManager.setClock(null);
+        SnackbarManager.setInstantAnimations(false);
+        SnackbarManager.setMetrics(null);
+        SnackbarManager.setTracingEnabled(false);
+        SnackbarManager.setListenerBudget(0, null);
+        SnackbarManager.setStrictListenerBudget(false);
+        SnackbarManager.setAsyncEventListener(null, null);
+        SnackbarManager.setMaxStackedSnackbars(1);
+        SnackbarManager.setIdleMaxDelay(1000);
+        if (mGlobalListener != null) {
+            SnackbarManager.removeEventListener(mGlobalListener);
+        }
+        if (mAnchorView != null) {
+            SnackbarManager.removeAnchorView(mAnchorView);
+        }
+        super.tearDown();
+    }
+
+    public void testManagerDoesNotRetainDismissedSnackbar() {
+        WeakReference<Snackbar> snackbar = showInNewParent(true);
+
+        assertCollected(snackbar);
+        assertNull(SnackbarManager.getCurrentSnackbar());
+    }
+
+    public void testManagerDoesNotRetainSnackbarOfDiscardedHierarchy() {
+        // The Snackbar is never dismissed, only its parent (i.e. the screen) goes away
+        WeakReference<Snackbar> snackbar = showInNewParent(false);
+
+        assertCollected(snackbar);
+        assertNull(SnackbarManager.getCurrentSnackbar());
+    }
+
+    public void testManagerDoesNotRetainDestroyedActivity() {
+        final WeakReference<?>[] result = new WeakReference<?>[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                Snackbar snackbar = Snackbar.with(activity)
+                        .text("Leak")
+                        .duration(Snackbar.SnackbarDuration.LENGTH_INDEFINITE);
+                SnackbarManager.show(snackbar, activity);
+                SnackbarManager.onActivityDestroyed(activity);
+                result[0] = new WeakReference<Activity>(activity);
+            }
+        });
+
+        assertCollected(result[0]);
+        assertNull(SnackbarManager.getCurrentSnackbar());
+    }
+
+    public void testShowActionDismissFlowRunsWithoutWaiting() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        final List<String> events = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                Snackbar snackbar = Snackbar.with(mContext)
+                        .text("Item deleted")
+                        .actionLabel("Undo")
+                        .actionListener(new ActionClickListener() {
+                            @Override
+                            public void onActionClicked(Snackbar snackbar) {
+                                events.add("action");
+                            }
+                        })
+                        .eventListener(new RecordingEventListener(events));
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+                clock.advance(1000);
+                snackbar.findViewById(R.id.sb__action).performClick();
+            }
+        });
+
+        assertEquals("[show, shown, action, dismiss, dismissed]", events.toString());
+    }
+
+    public void testSnackbarIsDismissedOnceTheClockReachesItsDuration() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        final List<String> events = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                Snackbar snackbar = Snackbar.with(mContext)
+                        .text("Synced")
+                        .duration(Snackbar.SnackbarDuration.LENGTH_SHORT)
+                        .eventListener(new RecordingEventListener(events));
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+
+                clock.advance(Snackbar.SnackbarDuration.LENGTH_SHORT.getDuration() - 1);
+                assertTrue(snackbar.isShowing());
+
+                clock.advance(1);
+                assertTrue(snackbar.isDismissed());
+            }
+        });
+
+        assertEquals("[show, shown, dismiss, dismissed]", events.toString());
+    }
+
+    public void testMetricsReportEveryStepWithItsDismissReason() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        final RecordingMetrics metrics = new RecordingMetrics();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setMetrics(metrics);
+                FrameLayout parent = new FrameLayout(mContext);
+                SnackbarManager.show(Snackbar.with(mContext).text("First"), parent, true);
+                SnackbarManager.show(Snackbar.with(mContext).text("Second")
+                        .duration(Snackbar.SnackbarDuration.LENGTH_SHORT), parent, true);
+                clock.advance(Snackbar.SnackbarDuration.LENGTH_SHORT.getDuration());
+            }
+        });
+
+        assertEquals("[First showRequested, First viewReady, First enterAnimationEnd, "
+                + "First dismissRequested REPLACE, First finished REPLACE, "
+                + "Second showRequested, Second viewReady, Second enterAnimationEnd, "
+                + "Second dismissRequested TIMEOUT, Second finished TIMEOUT]",
+                metrics.mEvents.toString());
+        assertTrue("Timestamps went back in time", metrics.mMonotonic);
+    }
+
+    public void testOffsetListenerIsToldTheSnackbarLeftTheScreen() {
+        final List<String> offsets = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                Snackbar snackbar = Snackbar.with(mContext)
+                        .text("Moved")
+                        .offsetListener(new OffsetListener() {
+                            @Override
+                            public void onOffsetChanged(Snackbar snackbar, float visibleHeight,
+                                                        float translationX) {
+                                offsets.add(visibleHeight + "/" + translationX);
+                            }
+                        });
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+                snackbar.dismiss();
+            }
+        });
+
+        assertEquals("[0.0/0.0]", offsets.toString());
+    }
+
+    public void testAnchorViewsFollowTheFurthestSnackbarOfTheirWindow() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                FrameLayout root = new FrameLayout(mContext);
+                mAnchorView = new View(mContext);
+                root.addView(mAnchorView);
+                SnackbarManager.addAnchorView(mAnchorView);
+                Snackbar leaving = Snackbar.with(mContext);
+                Snackbar entering = Snackbar.with(mContext);
+                Snackbar elsewhere = Snackbar.with(mContext);
+                root.addView(leaving);
+                root.addView(entering);
+                new FrameLayout(mContext).addView(elsewhere);
+
+                SnackbarManager.displaceAnchorViews(leaving, -100);
+                SnackbarManager.displaceAnchorViews(entering, -20);
+                SnackbarManager.displaceAnchorViews(elsewhere, -300);
+                assertEquals(-100f, mAnchorView.getTranslationY());
+
+                SnackbarManager.displaceAnchorViews(leaving, -10);
+                assertEquals(-20f, mAnchorView.getTranslationY());
+
+                SnackbarManager.displaceAnchorViews(leaving, 0);
+                SnackbarManager.displaceAnchorViews(entering, 0);
+                assertEquals(0f, mAnchorView.getTranslationY());
+            }
+        });
+    }
+
+    public void testScrollAttachmentDismissesOnceScrolledFarEnoughAndDetaches() {
+        final List<String> calls = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                Snackbar snackbar = Snackbar.with(mContext).scrollDismissDistance(50);
+                ScrollAttachment attachment = new ScrollAttachment(snackbar) {
+                    @Override
+                    void onAttach() {
+                        calls.add("attach");
+                    }
+
+                    @Override
+                    void onDetach() {
+                        calls.add("detach");
+                    }
+                };
+                snackbar.setScrollAttachment(attachment);
+                // Not showing yet, so not listening
+                attachment.onScrolled(100);
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+
+                attachment.onScrolled(30);
+                assertTrue(snackbar.isShowing());
+                attachment.onScrolled(-30);
+                assertTrue(snackbar.isDismissed());
+            }
+        });
+
+        assertEquals("[attach, detach]", calls.toString());
+    }
+
+    public void testListGetsItsScrollListenerBackWhateverOrderAttachmentsLeaveIn() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ListView listView = new ListView(mContext);
+                AbsListView.OnScrollListener appListener = new AbsListView.OnScrollListener() {
+                    @Override
+                    public void onScrollStateChanged(AbsListView view, int scrollState) {
+                    }
+
+                    @Override
+                    public void onScroll(AbsListView view, int firstVisibleItem,
+                                         int visibleItemCount, int totalItemCount) {
+                    }
+                };
+                listView.setOnScrollListener(appListener);
+                ScrollAttachment first =
+                        new AbsListViewScrollAttachment(Snackbar.with(mContext), listView);
+                ScrollAttachment second =
+                        new AbsListViewScrollAttachment(Snackbar.with(mContext), listView);
+
+                // The old Snackbar of a replace goes away after the new one is shown
+                first.attach();
+                second.attach();
+                first.detach();
+                assertNotSame(appListener,
+                        AbsListViewScrollAttachment.getOnScrollListener(listView));
+                second.detach();
+                assertSame(appListener,
+                        AbsListViewScrollAttachment.getOnScrollListener(listView));
+            }
+        });
+    }
+
+    public void testScrollingViewsOfAWindowShareOneObserverWhileShowing() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout root = new FrameLayout(mContext);
+                // Plain views, as a ScrollView without content won't scroll
+                View first = new View(mContext);
+                View second = new View(mContext);
+                root.addView(first);
+                root.addView(second);
+                Snackbar firstSnackbar = Snackbar.with(mContext)
+                        .attachToScrollingView(first)
+                        .scrollDismissDistance(50);
+                Snackbar secondSnackbar = Snackbar.with(mContext)
+                        .attachToScrollingView(second)
+                        .scrollDismissDistance(50);
+                assertNull(root.getTag(R.id.sb__scroll_observer));
+
+                firstSnackbar.show(root, true);
+                secondSnackbar.show(root, true);
+                WindowScrollObserver observer = WindowScrollObserver.get(root);
+
+                first.scrollTo(0, 40);
+                observer.onScrollChanged();
+                assertTrue(firstSnackbar.isShowing());
+                first.scrollTo(0, 0);
+                observer.onScrollChanged();
+                assertTrue(firstSnackbar.isDismissed());
+                assertTrue(secondSnackbar.isShowing());
+
+                secondSnackbar.dismiss();
+                assertNull(root.getTag(R.id.sb__scroll_observer));
+            }
+        });
+    }
+
+    public void testStackedSnackbarsPastTheMaximumWaitBehindAMoreEntry() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setMaxStackedSnackbars(2);
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar[] snackbars = new Snackbar[4];
+                for (int i = 0; i < snackbars.length; i++) {
+                    snackbars[i] = Snackbar.with(mContext).text("Upload " + i);
+                    SnackbarManager.show(snackbars[i], parent, false);
+                }
+                assertTrue(snackbars[0].isShowing());
+                assertTrue(snackbars[1].isShowing());
+                assertFalse(snackbars[2].isShowing());
+                assertSame(snackbars[1], SnackbarManager.getCurrentSnackbar());
+                TextView more = (TextView) parent.findViewById(R.id.sb__stack_more);
+                assertEquals("+2 more", more.getText().toString());
+
+                snackbars[0].dismiss();
+                assertTrue(snackbars[2].isShowing());
+                assertEquals("+1 more", more.getText().toString());
+                assertSame(snackbars[2], SnackbarManager.getCurrentSnackbar());
+
+                snackbars[1].dismiss();
+                assertTrue(snackbars[3].isShowing());
+                assertNull(parent.findViewById(R.id.sb__stack_more));
+                assertEquals(0, SnackbarManager.getStackedPendingCount());
+
+                snackbars[2].dismiss();
+                snackbars[3].dismiss();
+            }
+        });
+    }
+
+    public void testIdleSnackbarIsShownOnceTheMaxDelayPassesWithoutIdling() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // The main thread can't go idle while this runs, only the delay can show it
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setIdleMaxDelay(500);
+                Snackbar snackbar = Snackbar.with(mContext)
+                        .text("Synced")
+                        .priority(SnackbarPriority.IDLE);
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+                assertFalse(snackbar.isShowing());
+
+                clock.advance(499);
+                assertFalse(snackbar.isShowing());
+                clock.advance(1);
+                assertTrue(snackbar.isShowing());
+                snackbar.dismiss();
+            }
+        });
+    }
+
+    public void testIdleSnackbarIsShownWhenTheMainThreadIdles() throws InterruptedException {
+        final Snackbar[] snackbar = new Snackbar[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setIdleMaxDelay(60000);
+                snackbar[0] = Snackbar.with(mContext)
+                        .text("Synced")
+                        .priority(SnackbarPriority.IDLE);
+                SnackbarManager.show(snackbar[0], new FrameLayout(mContext), true);
+                assertFalse(snackbar[0].isShowing());
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertTrue(snackbar[0].isShowing());
+                snackbar[0].dismiss();
+            }
+        });
+    }
+
+    public void testSnackbarShownRightAwayCancelsTheIdleOnes() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar idle = Snackbar.with(mContext).priority(SnackbarPriority.IDLE);
+                Snackbar urgent = Snackbar.with(mContext).text("Upload failed");
+                SnackbarManager.show(idle, parent, true);
+                SnackbarManager.show(urgent, parent, true);
+
+                clock.advance(1000);
+                assertFalse(idle.isShowing());
+                assertTrue(urgent.isShowing());
+                urgent.dismiss();
+            }
+        });
+    }
+
+    public void testQueuedSnackbarDroppedBeforeShowingHasAResult() {
+        final List<String> results = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar idle = Snackbar.with(mContext).text("Idle")
+                        .priority(SnackbarPriority.IDLE)
+                        .resultListener(new ResultListener() {
+                            @Override
+                            public void onResult(Snackbar snackbar, DismissReason reason) {
+                                results.add(snackbar.getText() + " " + reason);
+                            }
+                        });
+                SnackbarManager.show(idle, parent, true);
+                assertEquals(SnackbarState.QUEUED, idle.getState());
+                assertFalse(idle.getResult().isDone());
+
+                Snackbar urgent = Snackbar.with(mContext).text("Urgent");
+                SnackbarManager.show(urgent, parent, true);
+                assertEquals(SnackbarState.IDLE, idle.getState());
+                assertEquals(DismissReason.REPLACE, idle.getResult().getReason());
+                urgent.dismiss();
+            }
+        });
+
+        assertEquals("[Idle REPLACE]", results.toString());
+    }
+
+    public void testEachShowHasExactlyOneResult() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        final List<String> results = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                ResultListener listener = new ResultListener() {
+                    @Override
+                    public void onResult(Snackbar snackbar, DismissReason reason) {
+                        results.add(snackbar.getText() + " " + reason);
+                    }
+                };
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar replaced = Snackbar.with(mContext).text("Replaced").resultListener(listener);
+                Snackbar undone = Snackbar.with(mContext).text("Undone").actionLabel("Undo")
+                        .resultListener(listener);
+                SnackbarManager.show(replaced, parent, true);
+                assertFalse(replaced.getResult().isDone());
+                SnackbarManager.show(undone, parent, true);
+                undone.findViewById(R.id.sb__action).performClick();
+                assertEquals(DismissReason.REPLACE, replaced.getResult().getReason());
+                assertEquals(DismissReason.ACTION, undone.getResult().getReason());
+
+                // The result is reused by the next show of the same Snackbar
+                SnackbarResult result = undone.getResult();
+                SnackbarManager.show(undone, parent, true);
+                assertSame(result, undone.getResult());
+                assertFalse(result.isDone());
+                clock.advance(Snackbar.SnackbarDuration.LENGTH_LONG.getDuration());
+                assertEquals(DismissReason.TIMEOUT, result.getReason());
+            }
+        });
+
+        assertEquals("[Replaced REPLACE, Undone ACTION, Undone TIMEOUT]", results.toString());
+    }
+
+    public void testReusedSnackbarStartsEveryShowAfresh() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        final List<String> clicks = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar snackbar = Snackbar.with(mContext).text("Reused").actionLabel("Undo")
+                        .actionListener(new ActionClickListener() {
+                            @Override
+                            public void onActionClicked(Snackbar snackbar) {
+                                clicks.add("click");
+                            }
+                        });
+                long duration = Snackbar.SnackbarDuration.LENGTH_LONG.getDuration();
+
+                SnackbarManager.show(snackbar, parent, true);
+                clock.advance(duration);
+                assertEquals(DismissReason.TIMEOUT, snackbar.getResult().getReason());
+
+                // Shown again after a timeout, it gets its whole duration again
+                SnackbarManager.show(snackbar, parent, true);
+                assertTrue(snackbar.isShowing());
+                clock.advance(duration - 1);
+                assertTrue(snackbar.isShowing());
+                snackbar.findViewById(R.id.sb__action).performClick();
+                assertEquals(DismissReason.ACTION, snackbar.getResult().getReason());
+
+                // Shown again after its action was clicked, the action works again
+                SnackbarManager.show(snackbar, parent, true);
+                assertFalse(snackbar.isActionClicked());
+                snackbar.findViewById(R.id.sb__action).performClick();
+                assertEquals(DismissReason.ACTION, snackbar.getResult().getReason());
+            }
+        });
+
+        assertEquals("[click, click]", clicks.toString());
+    }
+
+    public void testStateFollowsTheLifecycleAndAllowsReuse() throws InterruptedException {
+        final Snackbar snackbar = Snackbar.with(mContext).text("Reused");
+        assertEquals(SnackbarState.IDLE, snackbar.getState());
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+                assertEquals(SnackbarState.SHOWN, snackbar.getState());
+                snackbar.pauseTimer(Snackbar.TIMER_PAUSED_BY_TOUCH);
+                assertEquals(SnackbarState.PAUSED, snackbar.getState());
+                snackbar.resumeTimer(Snackbar.TIMER_PAUSED_BY_TOUCH);
+                assertEquals(SnackbarState.SHOWN, snackbar.getState());
+            }
+        });
+
+        // Dismissed from two threads at once, only one dismiss goes through on the main thread
+        Thread background = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                snackbar.dismiss();
+            }
+        });
+        background.start();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                snackbar.dismiss();
+            }
+        });
+        background.join();
+        getInstrumentation().waitForIdleSync();
+        assertEquals(SnackbarState.FINISHED, snackbar.getState());
+        assertEquals(DismissReason.PROGRAMMATIC, snackbar.getResult().getReason());
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(new ManualSnackbarClock());
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+                assertEquals(SnackbarState.SHOWN, snackbar.getState());
+                // Nothing of the last show is left once the state leaves FINISHED
+                assertFalse(snackbar.getResult().isDone());
+                assertEquals(Snackbar.SnackbarDuration.LENGTH_LONG.getDuration(),
+                        snackbar.getTimeRemaining());
+                snackbar.dismiss();
+                assertEquals(SnackbarState.FINISHED, snackbar.getState());
+            }
+        });
+    }
+
+    public void testShowDismissFlowWorksWithTracingEnabled() {
+        final List<String> events = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setTracingEnabled(true);
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.show(Snackbar.with(mContext)
+                        .text("Traced")
+                        .eventListener(new RecordingEventListener(events)),
+                        new FrameLayout(mContext), true);
+                SnackbarManager.dismiss();
+            }
+        });
+
+        assertEquals("[show, shown, dismiss, dismissed]", events.toString());
+    }
+
+    public void testListenersOverBudgetAreReported() {
+        final List<String> overBudget = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setListenerBudget(5, new ListenerBudgetCallback() {
+                    @Override
+                    public void onListenerOverBudget(Snackbar snackbar, SnackbarEventType event,
+                                                     long durationNanos) {
+                        overBudget.add(event + (durationNanos >= 5000000 ? "" : " too early"));
+                    }
+                });
+                SnackbarManager.show(Snackbar.with(mContext)
+                        .text("Slow")
+                        .eventListener(new EventListenerAdapter() {
+                            @Override
+                            public void onDismissed(Snackbar snackbar) {
+                                SystemClock.sleep(20);
+                            }
+                        }), new FrameLayout(mContext), true);
+                SnackbarManager.dismiss();
+            }
+        });
+
+        assertEquals("[DISMISSED]", overBudget.toString());
+    }
+
+    public void testAsyncEventsAreRecordsHandedToTheExecutor() {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        };
+        final List<String> events = new ArrayList<String>();
+        final List<String> globalEvents = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setAsyncEventListener(executor, new RecordingAsyncListener(globalEvents));
+                SnackbarManager.show(Snackbar.with(mContext)
+                        .text("Archived")
+                        .asyncEventListener(executor, new RecordingAsyncListener(events)),
+                        new FrameLayout(mContext), true);
+                SnackbarManager.dismiss();
+            }
+        });
+
+        // Nothing is delivered until the executor runs the events
+        assertTrue(events.isEmpty());
+        for (Runnable runnable : queued) {
+            runnable.run();
+        }
+        assertEquals("[SHOW Archived, SHOWN Archived, DISMISS Archived PROGRAMMATIC, "
+                + "DISMISSED Archived PROGRAMMATIC]", events.toString());
+        assertEquals(events, globalEvents);
+    }
+
+    public void testEveryListenerIsCalledInOrderWithGlobalOnesLast() {
+        final List<String> events = new ArrayList<String>();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                mGlobalListener = new RecordingEventListener(events, "global ");
+                SnackbarManager.addEventListener(mGlobalListener);
+                EventListener removed = new RecordingEventListener(events, "removed ");
+                Snackbar snackbar = Snackbar.with(mContext)
+                        .text("Sent")
+                        .eventListener(new RecordingEventListener(events, "first "))
+                        .addEventListener(new RecordingEventListener(events, "second "))
+                        .addEventListener(removed)
+                        .removeEventListener(removed);
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+            }
+        });
+
+        assertEquals("[first show, second show, global show, "
+                + "first shown, second shown, global shown]", events.toString());
+    }
+
+    public void testRestoredSnackbarContinuesWhereTheDestroyedOneStopped() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                Snackbar snackbar = Snackbar.with(activity)
+                        .text("Item deleted")
+                        .actionLabel("Undo")
+                        .dismissOnActionClicked(false)
+                        .duration(Snackbar.SnackbarDuration.LENGTH_LONG);
+                SnackbarManager.show(snackbar, activity);
+                clock.advance(1000);
+                snackbar.findViewById(R.id.sb__action).performClick();
+                SnackbarResult result = snackbar.getResult();
+
+                activity.mChangingConfigurations = true;
+                SnackbarManager.onActivityDestroyed(activity);
+                assertNull(SnackbarManager.getCurrentSnackbar());
+
+                // With animations on, only the restore itself can skip the enter animation
+                SnackbarManager.setInstantAnimations(false);
+                HostActivity recreated = newActivity(HostActivity.class, 1);
+                SnackbarManager.onActivityStarted(recreated);
+                Snackbar restored = SnackbarManager.getCurrentSnackbar();
+                assertNotNull(restored);
+                assertNotSame(snackbar, restored);
+                assertTrue(restored.isHostedBy(recreated));
+                assertEquals(Snackbar.SnackbarDuration.LENGTH_LONG.getDuration() - 1000,
+                        restored.getTimeRemaining());
+                assertTrue(restored.isActionClicked());
+                assertNull(restored.getAnimation());
+                assertSame(result, restored.getResult());
+                assertFalse(result.isDone());
+
+                SnackbarManager.setInstantAnimations(true);
+                clock.advance(restored.getTimeRemaining());
+                assertEquals(DismissReason.TIMEOUT, result.getReason());
+            }
+        });
+    }
+
+    public void testPendingRestoreWaitsForTheRecreatedActivity() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                Snackbar snackbar = Snackbar.with(activity).text("Synced");
+                SnackbarManager.show(snackbar, activity);
+                SnackbarResult result = snackbar.getResult();
+                activity.mChangingConfigurations = true;
+                SnackbarManager.onActivityDestroyed(activity);
+
+                // e.g. a dialog-themed Activity recreated on top of the host
+                SnackbarManager.onActivityStarted(newActivity(DialogActivity.class, 1));
+                assertNull(SnackbarManager.getCurrentSnackbar());
+                SnackbarManager.onActivityStarted(newActivity(HostActivity.class, 2));
+                assertNull(SnackbarManager.getCurrentSnackbar());
+                assertFalse(result.isDone());
+
+                HostActivity recreated = newActivity(HostActivity.class, 1);
+                SnackbarManager.onActivityStarted(recreated);
+                Snackbar restored = SnackbarManager.getCurrentSnackbar();
+                assertNotNull(restored);
+                assertTrue(restored.isHostedBy(recreated));
+                restored.dismiss();
+                assertEquals(DismissReason.PROGRAMMATIC, result.getReason());
+            }
+        });
+    }
+
+    public void testPendingRestoreReplacedByANewShowCompletesTheResult() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                Snackbar snackbar = Snackbar.with(activity).text("Synced");
+                SnackbarManager.show(snackbar, activity);
+                SnackbarResult result = snackbar.getResult();
+                activity.mChangingConfigurations = true;
+                SnackbarManager.onActivityDestroyed(activity);
+
+                HostActivity recreated = newActivity(HostActivity.class, 1);
+                Snackbar other = Snackbar.with(recreated).text("Sent");
+                SnackbarManager.show(other, recreated);
+                assertEquals(DismissReason.REPLACE, result.getReason());
+
+                SnackbarManager.onActivityStarted(recreated);
+                assertSame(other, SnackbarManager.getCurrentSnackbar());
+                other.dismiss();
+            }
+        });
+    }
+
+    public void testPendingRestoreExpiresWhenTheActivityIsNeverRecreated() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                Snackbar snackbar = Snackbar.with(activity)
+                        .text("Synced")
+                        .duration(Snackbar.SnackbarDuration.LENGTH_INDEFINITE);
+                SnackbarManager.show(snackbar, activity);
+                SnackbarResult result = snackbar.getResult();
+                activity.mChangingConfigurations = true;
+                SnackbarManager.onActivityDestroyed(activity);
+
+                clock.advance(4999);
+                assertFalse(result.isDone());
+                clock.advance(1);
+                assertEquals(DismissReason.HOST_DESTROYED, result.getReason());
+
+                SnackbarManager.onActivityStarted(newActivity(HostActivity.class, 1));
+                assertNull(SnackbarManager.getCurrentSnackbar());
+            }
+        });
+    }
+
+    public void testPausedHostFreezesTheCountdownUntilItResumes() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                long duration = Snackbar.SnackbarDuration.LENGTH_SHORT.getDuration();
+                Snackbar snackbar = Snackbar.with(activity)
+                        .text("Synced")
+                        .duration(Snackbar.SnackbarDuration.LENGTH_SHORT);
+                SnackbarManager.show(snackbar, activity);
+                clock.advance(1000);
+
+                SnackbarManager.onActivityPaused(activity);
+                assertEquals(SnackbarState.PAUSED, snackbar.getState());
+                clock.advance(duration * 2);
+                assertTrue(snackbar.isShowing());
+                assertEquals(duration - 1000, snackbar.getTimeRemaining());
+
+                SnackbarManager.onActivityResumed(activity);
+                assertEquals(SnackbarState.SHOWN, snackbar.getState());
+                clock.advance(duration - 1001);
+                assertTrue(snackbar.isShowing());
+                clock.advance(1);
+                assertEquals(DismissReason.TIMEOUT, snackbar.getResult().getReason());
+            }
+        });
+    }
+
+    public void testSnackbarShownInAPausedHostWaitsForItToResume() {
+        final ManualSnackbarClock clock = new ManualSnackbarClock();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(clock);
+                SnackbarManager.setInstantAnimations(true);
+                HostActivity activity = newActivity(HostActivity.class, 1);
+                long duration = Snackbar.SnackbarDuration.LENGTH_SHORT.getDuration();
+                SnackbarManager.onActivityPaused(activity);
+
+                Snackbar snackbar = Snackbar.with(activity)
+                        .text("Synced")
+                        .duration(Snackbar.SnackbarDuration.LENGTH_SHORT);
+                SnackbarManager.show(snackbar, activity);
+                assertEquals(SnackbarState.PAUSED, snackbar.getState());
+                clock.advance(duration * 2);
+                assertTrue(snackbar.isShowing());
+                assertEquals(duration, snackbar.getTimeRemaining());
+
+                SnackbarManager.onActivityResumed(activity);
+                clock.advance(duration - 1);
+                assertTrue(snackbar.isShowing());
+                clock.advance(1);
+                assertEquals(DismissReason.TIMEOUT, snackbar.getResult().getReason());
+            }
+        });
+    }
+
+    private WeakReference<Snackbar> showInNewParent(final boolean dismiss) {
+        final WeakReference<?>[] result = new WeakReference<?>[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Snackbar snackbar = Snackbar.with(mContext)
+                        .text("Leak")
+                        .animation(false)
+                        .duration(Snackbar.SnackbarDuration.LENGTH_INDEFINITE);
+                SnackbarManager.show(snackbar, new FrameLayout(mContext), true);
+                if (dismiss) {
+                    SnackbarManager.dismiss();
+                }
+                result[0] = new WeakReference<Snackbar>(snackbar);
+            }
+        });
+        @SuppressWarnings("unchecked")
+        WeakReference<Snackbar> snackbar = (WeakReference<Snackbar>) result[0];
+        return snackbar;
+    }
+
+    /**
+     * Creates an Activity that is never launched, so the test drives its lifecycle. Has to be
+     * called on the main thread
+     */
+    private <T extends HostActivity> T newActivity(Class<T> activityClass, int taskId) {
+        Context context = getInstrumentation().getTargetContext();
+        try {
+            T activity = activityClass.cast(getInstrumentation().newActivity(activityClass,
+                    context, null, (Application) context.getApplicationContext(), new Intent(),
+                    new ActivityInfo(), "Host", null, null, null));
+            activity.mTaskId = taskId;
+            return activity;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class HostActivity extends Activity {
+        boolean mChangingConfigurations;
+        int mTaskId;
+
+        @Override
+        public boolean isChangingConfigurations() {
+            return mChangingConfigurations;
+        }
+
+        @Override
+        public int getTaskId() {
+            return mTaskId;
+        }
+    }
+
+    public static class DialogActivity extends HostActivity {
+    }
+
+    private static class RecordingEventListener extends EventListenerAdapter {
+        private final List<String> mEvents;
+        private final String mPrefix;
+
+        RecordingEventListener(List<String> events) {
+            this(events, "");
+        }
+
+        RecordingEventListener(List<String> events, String prefix) {
+            mEvents = events;
+            mPrefix = prefix;
+        }
+
+        @Override
+        public void onShow(Snackbar snackbar) {
+            mEvents.add(mPrefix + "show");
+        }
+
+        @Override
+        public void onShown(Snackbar snackbar) {
+            mEvents.add(mPrefix + "shown");
+        }
+
+        @Override
+        public void onDismiss(Snackbar snackbar) {
+            mEvents.add(mPrefix + "dismiss");
+        }
+
+        @Override
+        public void onDismissed(Snackbar snackbar) {
+            mEvents.add(mPrefix + "dismissed");
+        }
+    }
+
+    private static class RecordingAsyncListener implements AsyncEventListener {
+        private final List<String> mEvents;
+
+        RecordingAsyncListener(List<String> events) {
+            mEvents = events;
+        }
+
+        @Override
+        public void onEvent(SnackbarEvent event) {
+            mEvents.add(event.getType() + " " + event.getText()
+                    + (event.getDismissReason() != null ? " " + event.getDismissReason() : ""));
+        }
+    }
+
+    private static class RecordingMetrics implements SnackbarMetrics {
+        final List<String> mEvents = new ArrayList<String>();
+        boolean mMonotonic = true;
+        private long mLastTimeNanos;
+
+        @Override
+        public void onShowRequested(Snackbar snackbar, long timeNanos) {
+            record(snackbar, "showRequested", timeNanos);
+        }
+
+        @Override
+        public void onViewReady(Snackbar snackbar, long timeNanos) {
+            record(snackbar, "viewReady", timeNanos);
+        }
+
+        @Override
+        public void onFirstPreDraw(Snackbar snackbar, long timeNanos) {
+            record(snackbar, "firstPreDraw", timeNanos);
+        }
+
+        @Override
+        public void onEnterAnimationEnd(Snackbar snackbar, long timeNanos) {
+            record(snackbar, "enterAnimationEnd", timeNanos);
+        }
+
+        @Override
+        public void onDismissRequested(Snackbar snackbar, DismissReason reason, long timeNanos) {
+            record(snackbar, "dismissRequested " + reason, timeNanos);
+        }
+
+        @Override
+        public void onFinished(Snackbar snackbar, DismissReason reason, long timeNanos) {
+            record(snackbar, "finished " + reason, timeNanos);
+        }
+
+        @Override
+        public void onListenerCallback(Snackbar snackbar, long durationNanos) {
+        }
+
+        private void record(Snackbar snackbar, String event, long timeNanos) {
+            mEvents.add(snackbar.getText() + " " + event);
+            mMonotonic &= timeNanos >= mLastTimeNanos;
+            mLastTimeNanos = timeNanos;
+        }
+    }
+
+    private static void assertCollected(WeakReference<?> reference) {
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            Runtime.getRuntime().gc();
+            Runtime.getRuntime().runFinalization();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        assertNull("Object was leaked", reference.get());
+    }
+}
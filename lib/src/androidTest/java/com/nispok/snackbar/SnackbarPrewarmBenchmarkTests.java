@@ -0,0 +1,78 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.widget.FrameLayout;
+
+/**
+ * Compares the first show of a {@link Snackbar} in a process, with and without
+ * {@link Snackbar#prewarm(Context)}, to the shows that follow it. Only the first show of a process
+ * is cold, so each test should be run in a process of its own, e.g. with
+ * {@code am instrument -e class com.nispok.snackbar.SnackbarPrewarmBenchmarkTests#testColdFirstShow}.
+ * Results are written to {@code snackbar-prewarm.json}, see {@link BenchmarkReport}.
+ */
+@LargeTest
+public class SnackbarPrewarmBenchmarkTests extends InstrumentationTestCase {
+
+    private static final long PREWARM_TIMEOUT = 5000;
+
+    private Context mContext;
+    private BenchmarkReport mReport;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+        mReport = BenchmarkReport.forSuite("snackbar-prewarm");
+        SnackbarManager.setInstantAnimations(true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SnackbarManager.setInstantAnimations(false);
+        mReport.write(getInstrumentation().getTargetContext());
+        super.tearDown();
+    }
+
+    public void testColdFirstShow() {
+        measureFirstAndWarmShows("cold");
+    }
+
+    public void testPrewarmedFirstShow() throws InterruptedException {
+        long start = System.nanoTime();
+        Snackbar.prewarm(mContext);
+        assertTrue("Prewarming timed out", SnackbarPrewarmer.awaitLatest(PREWARM_TIMEOUT));
+        mReport.addSingle("prewarm", System.nanoTime() - start);
+        measureFirstAndWarmShows("prewarmed");
+    }
+
+    private void measureFirstAndWarmShows(final String name) {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                Snackbar snackbar = Snackbar.with(mContext).text("First");
+                snackbar.show(new FrameLayout(mContext), true);
+                mReport.addSingle("firstShow." + name, System.nanoTime() - start);
+                snackbar.dismiss();
+
+                mReport.add(new Benchmark("warmShow").param("after", name).run(
+                        new Benchmark.Operation() {
+                            private Snackbar mSnackbar;
+
+                            @Override
+                            void run() {
+                                mSnackbar = Snackbar.with(mContext).text("Warm");
+                                mSnackbar.show(new FrameLayout(mContext), true);
+                            }
+
+                            @Override
+                            void tearDown() {
+                                mSnackbar.dismiss();
+                            }
+                        }));
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.enums.SnackbarState;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SnackbarStateMachineTests extends TestCase {
+
+    private static final Set<String> ALLOWED = new HashSet<String>(Arrays.asList(
+            "IDLE>QUEUED", "IDLE>ENTERING",
+            "QUEUED>IDLE", "QUEUED>ENTERING",
+            "ENTERING>SHOWN", "ENTERING>PAUSED", "ENTERING>EXITING", "ENTERING>FINISHED",
+            "SHOWN>PAUSED", "SHOWN>EXITING", "SHOWN>FINISHED",
+            "PAUSED>SHOWN", "PAUSED>EXITING", "PAUSED>FINISHED",
+            "EXITING>FINISHED",
+            "FINISHED>IDLE", "FINISHED>QUEUED", "FINISHED>ENTERING"));
+
+    public void testEveryTransitionIsAllowedOnlyIfListed() {
+        for (SnackbarState from : SnackbarState.values()) {
+            for (SnackbarState to : SnackbarState.values()) {
+                String transition = from + ">" + to;
+                boolean allowed = ALLOWED.contains(transition);
+                assertEquals(transition, allowed, SnackbarStateMachine.isAllowed(from, to));
+
+                SnackbarStateMachine machine = new SnackbarStateMachine(from);
+                assertEquals(transition, allowed, machine.moveTo(to));
+                assertEquals(transition, allowed ? to : from, machine.get());
+
+                machine = new SnackbarStateMachine(from);
+                assertEquals(transition, allowed, machine.moveFrom(from, to));
+                assertEquals(transition, allowed ? to : from, machine.get());
+            }
+        }
+    }
+
+    public void testMoveFromFailsFromAnyOtherState() {
+        SnackbarStateMachine machine = new SnackbarStateMachine(SnackbarState.PAUSED);
+        assertFalse(machine.moveFrom(SnackbarState.SHOWN, SnackbarState.EXITING));
+        assertEquals(SnackbarState.PAUSED, machine.get());
+    }
+
+    public void testShowingFromEnteringUntilFinished() {
+        Set<SnackbarState> showing = new HashSet<SnackbarState>(
+                Arrays.asList(SnackbarState.ENTERING, SnackbarState.SHOWN, SnackbarState.PAUSED,
+                        SnackbarState.EXITING));
+        for (SnackbarState state : SnackbarState.values()) {
+            assertEquals(state.toString(), showing.contains(state),
+                    new SnackbarStateMachine(state).isShowing());
+        }
+    }
+
+    public void testOnlyOneOfConcurrentDismissesWins() throws InterruptedException {
+        for (int round = 0; round < 100; round++) {
+            final SnackbarStateMachine machine = new SnackbarStateMachine(SnackbarState.SHOWN);
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicInteger wins = new AtomicInteger();
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        if (machine.moveTo(SnackbarState.EXITING)) {
+                            wins.incrementAndGet();
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(1, wins.get());
+            assertEquals(SnackbarState.EXITING, machine.get());
+        }
+    }
+}
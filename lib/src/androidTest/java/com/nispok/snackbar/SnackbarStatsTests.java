@@ -0,0 +1,100 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.widget.FrameLayout;
+
+import com.nispok.snackbar.listeners.EventListenerAdapter;
+
+public class SnackbarStatsTests extends InstrumentationTestCase {
+
+    private static final long MILLIS = 1000000;
+
+    private Context mContext;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SnackbarManager.setInstantAnimations(false);
+        SnackbarManager.setMetrics(null);
+        super.tearDown();
+    }
+
+    public void testBucketsAreNeverWiderThanAnEighthOfTheirValues() {
+        for (long nanos = 1 << LatencyHistogram.MIN_EXPONENT; nanos < 1L << 35; nanos += nanos / 7) {
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(nanos));
+            assertTrue(nanos + " above its bucket", nanos < upperBound);
+            assertTrue(nanos + " in a bucket too wide", upperBound <= nanos + nanos / 8 + 1);
+        }
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * MILLIS);
+        }
+        SnackbarStats.Distribution distribution = new SnackbarStats.Distribution(histogram.snapshot());
+
+        assertEquals(100, distribution.getCount());
+        assertWithinBucket(50 * MILLIS, distribution.getPercentileNanos(50));
+        assertWithinBucket(99 * MILLIS, distribution.getPercentileNanos(99));
+        assertWithinBucket(100 * MILLIS, distribution.getPercentileNanos(100));
+    }
+
+    public void testRecordingFromManyThreadsLosesNothing() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(j * 1000);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, new SnackbarStats.Distribution(histogram.snapshot()).getCount());
+    }
+
+    public void testStatsAggregateShownSnackbars() {
+        final SnackbarStats stats = new SnackbarStats();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setInstantAnimations(true);
+                SnackbarManager.setMetrics(stats);
+                for (int i = 0; i < 3; i++) {
+                    SnackbarManager.show(Snackbar.with(mContext)
+                            .text("Stats")
+                            .eventListener(new EventListenerAdapter() {
+                            }), new FrameLayout(mContext), true);
+                    SnackbarManager.dismiss();
+                }
+            }
+        });
+
+        SnackbarStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(3, snapshot.getOnScreen().getCount());
+        // onShow, onShown, onDismiss and onDismissed for each of them
+        assertEquals(12, snapshot.getListenerCallback().getCount());
+
+        stats.reset();
+        assertEquals(0, stats.snapshot().getOnScreen().getCount());
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual + " isn't close to " + expected,
+                actual > expected && actual <= expected + expected / 8 + 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nispok.snackbar;
+
+import android.os.Looper;
+import android.os.Message;
+import android.test.InstrumentationTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnackbarTimerTests extends InstrumentationTestCase {
+
+    private ManualSnackbarClock mClock;
+    private SnackbarTimer mTimer;
+    private List<String> mExpired;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // Not a real time clock, so nothing is posted to the main thread while the test runs
+        mClock = new ManualSnackbarClock();
+        mTimer = new SnackbarTimer(Looper.getMainLooper(), mClock);
+        mExpired = new ArrayList<String>();
+    }
+
+    public void testEntriesExpireInDeadlineOrder() {
+        long now = mClock.uptimeMillis();
+        mTimer.schedule(new NamedEntry("c"), now - 10);
+        mTimer.schedule(new NamedEntry("a"), now - 30);
+        mTimer.schedule(new NamedEntry("b"), now - 20);
+
+        expire();
+
+        assertEquals("[a, b, c]", mExpired.toString());
+    }
+
+    public void testOnlyDueEntriesExpire() {
+        long now = mClock.uptimeMillis();
+        NamedEntry later = new NamedEntry("later");
+        mTimer.schedule(later, now + 60000);
+        mTimer.schedule(new NamedEntry("due"), now - 1);
+
+        expire();
+
+        assertEquals("[due]", mExpired.toString());
+        assertTrue(later.isScheduled());
+        mTimer.cancel(later);
+    }
+
+    public void testCancelledEntryDoesNotExpire() {
+        long now = mClock.uptimeMillis();
+        NamedEntry cancelled = new NamedEntry("cancelled");
+        mTimer.schedule(cancelled, now - 20);
+        mTimer.schedule(new NamedEntry("kept"), now - 10);
+        mTimer.cancel(cancelled);
+
+        expire();
+
+        assertFalse(cancelled.isScheduled());
+        assertEquals("[kept]", mExpired.toString());
+    }
+
+    public void testRescheduledEntryMovesInTheQueue() {
+        long now = mClock.uptimeMillis();
+        NamedEntry first = new NamedEntry("first");
+        NamedEntry second = new NamedEntry("second");
+        mTimer.schedule(first, now - 20);
+        mTimer.schedule(second, now - 10);
+        mTimer.schedule(first, now - 5);
+
+        expire();
+
+        assertEquals("[second, first]", mExpired.toString());
+    }
+
+    private void expire() {
+        Message message = Message.obtain();
+        message.what = 1;
+        mTimer.handleMessage(message);
+    }
+
+    private class NamedEntry extends SnackbarTimer.Entry {
+        private final String mName;
+
+        NamedEntry(String name) {
+            mName = name;
+        }
+
+        @Override
+        void onExpired() {
+            mExpired.add(mName);
+        }
+    }
+}
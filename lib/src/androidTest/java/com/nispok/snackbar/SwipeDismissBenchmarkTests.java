@@ -0,0 +1,197 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.nispok.snackbar.listeners.SwipeDismissTouchListener;
+
+/**
+ * Replays recorded gestures through a {@link SwipeDismissTouchListener} and reports time and
+ * allocations per touch event, and the frame timing of the settle and dismiss animations that
+ * follow. Results are written to {@code swipe-dismiss.json}, see {@link BenchmarkReport}.
+ */
+@LargeTest
+public class SwipeDismissBenchmarkTests extends InstrumentationTestCase {
+
+    private static final int WIDTH = 720;
+    private static final int HEIGHT = 144;
+    private static final long ANIMATION_TIMEOUT = 2000;
+    private static final long FRAME_POLL_INTERVAL = 16;
+
+    // Gestures as {time offset in ms, action, x, y} rows
+    private static final float[][] TAP = {
+            {0, MotionEvent.ACTION_DOWN, 360, 72},
+            {60, MotionEvent.ACTION_UP, 360, 72},
+    };
+    private static final float[][] VERTICAL_DRAG = {
+            {0, MotionEvent.ACTION_DOWN, 360, 72},
+            {16, MotionEvent.ACTION_MOVE, 362, 90},
+            {32, MotionEvent.ACTION_MOVE, 363, 120},
+            {48, MotionEvent.ACTION_MOVE, 365, 160},
+            {64, MotionEvent.ACTION_MOVE, 366, 210},
+            {80, MotionEvent.ACTION_UP, 366, 230},
+    };
+    private static final float[][] SHORT_SWIPE = swipe(120, 20);
+    private static final float[][] DISMISSING_SWIPE = swipe(600, 30);
+
+    private Context mContext;
+    private BenchmarkReport mReport;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+        mReport = BenchmarkReport.forSuite("swipe-dismiss");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mReport.write(getInstrumentation().getTargetContext());
+        super.tearDown();
+    }
+
+    public void testTap() {
+        replay("tap", TAP);
+    }
+
+    public void testVerticalDrag() {
+        replay("verticalDrag", VERTICAL_DRAG);
+    }
+
+    public void testShortSwipe() {
+        replay("shortSwipe", SHORT_SWIPE);
+    }
+
+    public void testDismissingSwipe() {
+        replay("dismissingSwipe", DISMISSING_SWIPE);
+    }
+
+    public void testSettleFrameTiming() throws InterruptedException {
+        measureFrames("settle", SHORT_SWIPE);
+    }
+
+    public void testDismissFrameTiming() throws InterruptedException {
+        measureFrames("dismiss", DISMISSING_SWIPE);
+    }
+
+    private void measureFrames(String name, final float[][] gesture) throws InterruptedException {
+        final GestureReplay[] replay = new GestureReplay[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                replay[0] = new GestureReplay(gesture);
+                replay[0].setUp();
+                replay[0].run();
+            }
+        });
+
+        final boolean[] animating = {true};
+        long deadline = SystemClock.uptimeMillis() + ANIMATION_TIMEOUT;
+        while (animating[0] && SystemClock.uptimeMillis() < deadline) {
+            Thread.sleep(FRAME_POLL_INTERVAL);
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    animating[0] = replay[0].mListener.isAnimating();
+                }
+            });
+        }
+        assertFalse(name + " animation didn't come to rest", animating[0]);
+
+        SwipeDismissTouchListener listener = replay[0].mListener;
+        assertTrue(listener.getAnimationFrameCount() > 0);
+        mReport.addFrames(name, listener.getAnimationFrameCount(),
+                listener.getLongestAnimationFrameNanos());
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                replay[0].tearDown();
+            }
+        });
+    }
+
+    private void replay(String name, final float[][] gesture) {
+        final Benchmark benchmark = new Benchmark("swipe")
+                .param("gesture", name)
+                .operationsPerRun(gesture.length);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mReport.add(benchmark.run(new GestureReplay(gesture)));
+            }
+        });
+    }
+
+    private class GestureReplay extends Benchmark.Operation {
+        private final float[][] mGesture;
+        private final MotionEvent[] mEvents;
+        private final View mView;
+        private final SwipeDismissTouchListener mListener;
+
+        GestureReplay(float[][] gesture) {
+            mGesture = gesture;
+            mEvents = new MotionEvent[gesture.length];
+            mView = new FrameLayout(mContext);
+            mView.layout(0, 0, WIDTH, HEIGHT);
+            mListener = new SwipeDismissTouchListener(mView, null,
+                    new SwipeDismissTouchListener.DismissCallbacks() {
+                        @Override
+                        public boolean canDismiss(Object token) {
+                            return true;
+                        }
+
+                        @Override
+                        public void onDismiss(View view, Object token) {
+                        }
+
+                        @Override
+                        public void pauseTimer(boolean shouldPause) {
+                        }
+                    });
+        }
+
+        @Override
+        void setUp() {
+            // onTouch() offsets the events, so they're built fresh for every run
+            long downTime = SystemClock.uptimeMillis();
+            for (int i = 0; i < mGesture.length; i++) {
+                float[] row = mGesture[i];
+                mEvents[i] = MotionEvent.obtain(downTime, downTime + (long) row[0], (int) row[1],
+                        row[2], row[3], 0);
+            }
+        }
+
+        @Override
+        void run() {
+            for (MotionEvent event : mEvents) {
+                mListener.onTouch(mView, event);
+            }
+        }
+
+        @Override
+        void tearDown() {
+            for (MotionEvent event : mEvents) {
+                event.recycle();
+            }
+            mListener.cancelAnimation();
+            mView.setTranslationX(0);
+            mView.setAlpha(1);
+        }
+    }
+
+    private static float[][] swipe(int distance, int moves) {
+        float[][] gesture = new float[moves + 2][];
+        float x = 100;
+        gesture[0] = new float[]{0, MotionEvent.ACTION_DOWN, x, 72};
+        for (int i = 1; i <= moves; i++) {
+            gesture[i] = new float[]{i * 8, MotionEvent.ACTION_MOVE, x + distance * i / moves, 72};
+        }
+        gesture[moves + 1] = new float[]{(moves + 1) * 8, MotionEvent.ACTION_UP, x + distance, 72};
+        return gesture;
+    }
+}
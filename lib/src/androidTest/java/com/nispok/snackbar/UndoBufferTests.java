@@ -0,0 +1,141 @@
+package com.nispok.snackbar;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.widget.FrameLayout;
+
+import com.nispok.snackbar.enums.SnackbarPriority;
+import com.nispok.snackbar.listeners.UndoCommitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class UndoBufferTests extends InstrumentationTestCase {
+
+    private Context mContext;
+    private ManualSnackbarClock mClock;
+    private final List<String> mCommits = new ArrayList<String>();
+    private final UndoBuffer<String> mBuffer = new UndoBuffer<String>(new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    }, new UndoCommitter<String>() {
+        @Override
+        public void commit(List<String> operations) {
+            mCommits.add(operations.toString());
+        }
+    });
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getContext();
+        mClock = new ManualSnackbarClock();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SnackbarManager.setClock(null);
+        SnackbarManager.setInstantAnimations(false);
+        super.tearDown();
+    }
+
+    public void testRapidDeletesAreCommittedInOneBatch() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(mClock);
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                for (int i = 0; i < 10; i++) {
+                    SnackbarManager.show(deleted("item" + i), parent, true);
+                }
+                assertTrue(mCommits.isEmpty());
+
+                mClock.advance(Snackbar.SnackbarDuration.LENGTH_LONG.getDuration());
+            }
+        });
+
+        assertEquals("[[item0, item1, item2, item3, item4, item5, item6, item7, item8, item9]]",
+                mCommits.toString());
+    }
+
+    public void testUndoneOperationIsNeverCommitted() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(mClock);
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                SnackbarManager.show(deleted("first"), parent, true);
+                Snackbar second = deleted("second");
+                SnackbarManager.show(second, parent, true);
+
+                second.findViewById(R.id.sb__action).performClick();
+            }
+        });
+
+        assertEquals("[[first]]", mCommits.toString());
+        assertEquals(0, mBuffer.getPendingCount());
+    }
+
+    public void testOperationOfASnackbarDroppedBeforeShowingIsCommitted() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(mClock);
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar queued = deleted("queued").priority(SnackbarPriority.IDLE);
+                SnackbarManager.show(queued, parent, true);
+                assertEquals(0, mBuffer.getPendingCount());
+
+                // Drops the idle Snackbar, which never blocks the operation shown after it
+                SnackbarManager.show(deleted("shown"), parent, true);
+                mClock.advance(Snackbar.SnackbarDuration.LENGTH_LONG.getDuration());
+            }
+        });
+
+        assertEquals("[[queued], [shown]]", mCommits.toString());
+    }
+
+    public void testOperationIsSettledOnlyOnceWhenTheSnackbarIsReused() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SnackbarManager.setClock(mClock);
+                SnackbarManager.setInstantAnimations(true);
+                FrameLayout parent = new FrameLayout(mContext);
+                Snackbar snackbar = deleted("item");
+                SnackbarManager.show(snackbar, parent, true);
+                mClock.advance(Snackbar.SnackbarDuration.LENGTH_LONG.getDuration());
+
+                SnackbarManager.show(snackbar, parent, true);
+                assertEquals(0, mBuffer.getPendingCount());
+                snackbar.findViewById(R.id.sb__action).performClick();
+            }
+        });
+
+        assertEquals("[[item]]", mCommits.toString());
+    }
+
+    public void testFlushCommitsExpiredOperationsWithoutWaiting() {
+        mBuffer.add("expired");
+        mBuffer.add("pending");
+        mBuffer.expire("expired");
+        assertTrue(mCommits.isEmpty());
+
+        mBuffer.flush();
+        assertEquals("[[expired]]", mCommits.toString());
+        assertEquals(1, mBuffer.getPendingCount());
+    }
+
+    private Snackbar deleted(String item) {
+        return Snackbar.with(mContext)
+                .text(item + " deleted")
+                .actionLabel("Undo")
+                .undoable(mBuffer, item);
+    }
+}
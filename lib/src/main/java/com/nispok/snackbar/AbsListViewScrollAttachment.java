@@ -0,0 +1,142 @@
+package com.nispok.snackbar;
+
+import android.view.View;
+import android.widget.AbsListView;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scrolled distance is worked out from the position and top of the first visible child.
+ * AbsListView only takes one scroll listener, so every attachment of a list goes through the one
+ * {@link Forwarder} of that list, which takes the place of the app's listener while any is attached.
+ */
+class AbsListViewScrollAttachment extends ScrollAttachment {
+
+    private static Field onScrollListenerField;
+    private static boolean onScrollListenerFieldFetched;
+
+    private final AbsListView mListView;
+    private boolean mHasPosition;
+    private int mFirstPosition;
+    private int mFirstTop;
+
+    AbsListViewScrollAttachment(Snackbar snackbar, AbsListView listView) {
+        super(snackbar);
+        mListView = listView;
+    }
+
+    @Override
+    void onAttach() {
+        mHasPosition = false;
+        Forwarder.get(mListView).add(this);
+    }
+
+    @Override
+    void onDetach() {
+        Forwarder.get(mListView).remove(this);
+    }
+
+    void onListScrolled(AbsListView view, int firstVisibleItem) {
+        View first = view.getChildAt(0);
+        if (first == null) {
+            return;
+        }
+        int top = first.getTop();
+        if (mHasPosition) {
+            // Items that scrolled past are assumed to be as tall as the first visible one
+            onScrolled((firstVisibleItem - mFirstPosition) * first.getHeight() + mFirstTop - top);
+        }
+        mHasPosition = true;
+        mFirstPosition = firstVisibleItem;
+        mFirstTop = top;
+    }
+
+    /**
+     * The scroll listener of a list while at least one Snackbar is attached to it. It forwards
+     * every call to the listener the app had set, and puts that one back once the last attachment
+     * is gone, whatever order attachments come and go in. It's kept as a tag of the list.
+     */
+    private static final class Forwarder implements AbsListView.OnScrollListener {
+
+        private final AbsListView mListView;
+        private final List<AbsListViewScrollAttachment> mAttachments =
+                new ArrayList<AbsListViewScrollAttachment>();
+        private AbsListView.OnScrollListener mAppListener;
+
+        private Forwarder(AbsListView listView) {
+            mListView = listView;
+        }
+
+        static Forwarder get(AbsListView listView) {
+            Forwarder forwarder = (Forwarder) listView.getTag(R.id.sb__scroll_forwarder);
+            if (forwarder == null) {
+                forwarder = new Forwarder(listView);
+                listView.setTag(R.id.sb__scroll_forwarder, forwarder);
+            }
+            return forwarder;
+        }
+
+        void add(AbsListViewScrollAttachment attachment) {
+            if (mAttachments.isEmpty()) {
+                mAppListener = getOnScrollListener(mListView);
+                mListView.setOnScrollListener(this);
+            }
+            mAttachments.add(attachment);
+        }
+
+        void remove(AbsListViewScrollAttachment attachment) {
+            if (!mAttachments.remove(attachment) || !mAttachments.isEmpty()) {
+                return;
+            }
+            // Leave alone a listener the app set while we were attached
+            if (onScrollListenerField == null || getOnScrollListener(mListView) == this) {
+                mListView.setOnScrollListener(mAppListener);
+            }
+            mAppListener = null;
+            mListView.setTag(R.id.sb__scroll_forwarder, null);
+        }
+
+        @Override
+        public void onScrollStateChanged(AbsListView view, int scrollState) {
+            if (mAppListener != null) {
+                mAppListener.onScrollStateChanged(view, scrollState);
+            }
+        }
+
+        @Override
+        public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                             int totalItemCount) {
+            if (mAppListener != null) {
+                mAppListener.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+            }
+            // Attachments remove themselves when their Snackbar is dismissed
+            for (int i = mAttachments.size() - 1; i >= 0; i--) {
+                if (i < mAttachments.size()) {
+                    mAttachments.get(i).onListScrolled(view, firstVisibleItem);
+                }
+            }
+        }
+    }
+
+    static AbsListView.OnScrollListener getOnScrollListener(AbsListView listView) {
+        if (!onScrollListenerFieldFetched) {
+            onScrollListenerFieldFetched = true;
+            try {
+                onScrollListenerField = AbsListView.class.getDeclaredField("mOnScrollListener");
+                onScrollListenerField.setAccessible(true);
+            } catch (NoSuchFieldException ignored) {
+                // The app's listener will be lost, as it was before
+            }
+        }
+        if (onScrollListenerField == null) {
+            return null;
+        }
+        try {
+            return (AbsListView.OnScrollListener) onScrollListenerField.get(listView);
+        } catch (IllegalAccessException ignored) {
+            return null;
+        }
+    }
+}
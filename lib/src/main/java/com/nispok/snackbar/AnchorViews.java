@@ -0,0 +1,134 @@
+package com.nispok.snackbar;
+
+import android.os.Build;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Views, such as floating action buttons or bottom toolbars, moved out of the way of the
+ * {@link Snackbar}s shown in their window. Every Snackbar reports how far it's on screen from its
+ * own pre-draw pass, and each anchor is translated by the furthest Snackbar on each side, so
+ * overlapping Snackbars (e.g. while one replaces another) never pull an anchor back and forth.
+ * Both anchors and Snackbars are held weakly. Translating views needs Honeycomb, so anchors are
+ * ignored on older versions.
+ */
+final class AnchorViews {
+
+    private final List<Anchor> mAnchors = new ArrayList<Anchor>();
+    private final List<Displacement> mDisplacements = new ArrayList<Displacement>();
+
+    void add(View view) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) {
+            return;
+        }
+        if (indexOfAnchor(view) == -1) {
+            mAnchors.add(new Anchor(view));
+            apply();
+        }
+    }
+
+    void remove(View view) {
+        int index = indexOfAnchor(view);
+        if (index != -1) {
+            Anchor anchor = mAnchors.remove(index);
+            if (anchor.mTranslationY != 0) {
+                view.setTranslationY(0);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return mAnchors.isEmpty();
+    }
+
+    /**
+     * Sets how far {@code snackbar} pushes the anchors of its window: positive values move them
+     * down, negative ones up, and 0 releases them
+     */
+    void update(Snackbar snackbar, float translationY) {
+        if (mAnchors.isEmpty() && mDisplacements.isEmpty()) {
+            return;
+        }
+        int index = -1;
+        for (int i = 0; i < mDisplacements.size(); i++) {
+            if (mDisplacements.get(i).mSnackbar.get() == snackbar) {
+                index = i;
+                break;
+            }
+        }
+        if (translationY == 0 || snackbar.getParent() == null) {
+            if (index == -1) {
+                return;
+            }
+            mDisplacements.remove(index);
+        } else if (index == -1) {
+            mDisplacements.add(new Displacement(snackbar, translationY));
+        } else {
+            mDisplacements.get(index).mTranslationY = translationY;
+        }
+        apply();
+    }
+
+    private void apply() {
+        for (int i = mAnchors.size() - 1; i >= 0; i--) {
+            Anchor anchor = mAnchors.get(i);
+            View view = anchor.mView.get();
+            if (view == null) {
+                mAnchors.remove(i);
+                continue;
+            }
+            float translationY = translationFor(view.getRootView());
+            if (translationY != anchor.mTranslationY) {
+                anchor.mTranslationY = translationY;
+                view.setTranslationY(translationY);
+            }
+        }
+    }
+
+    private float translationFor(View root) {
+        float down = 0;
+        float up = 0;
+        for (int i = mDisplacements.size() - 1; i >= 0; i--) {
+            Displacement displacement = mDisplacements.get(i);
+            Snackbar snackbar = displacement.mSnackbar.get();
+            if (snackbar == null) {
+                mDisplacements.remove(i);
+            } else if (snackbar.getRootView() == root) {
+                down = Math.max(down, displacement.mTranslationY);
+                up = Math.min(up, displacement.mTranslationY);
+            }
+        }
+        return down + up;
+    }
+
+    private int indexOfAnchor(View view) {
+        for (int i = 0; i < mAnchors.size(); i++) {
+            if (mAnchors.get(i).mView.get() == view) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class Anchor {
+        final WeakReference<View> mView;
+        float mTranslationY;
+
+        Anchor(View view) {
+            mView = new WeakReference<View>(view);
+        }
+    }
+
+    private static class Displacement {
+        final WeakReference<Snackbar> mSnackbar;
+        float mTranslationY;
+
+        Displacement(Snackbar snackbar, float translationY) {
+            mSnackbar = new WeakReference<Snackbar>(snackbar);
+            mTranslationY = translationY;
+        }
+    }
+}
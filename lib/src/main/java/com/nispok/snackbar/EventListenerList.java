@@ -0,0 +1,62 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.listeners.EventListener;
+
+/**
+ * Copy-on-write list of {@link EventListener}s. Adding and removing copy the array, which only
+ * happens while setting Snackbars up; dispatching walks the current array by index, without
+ * allocating an iterator.
+ */
+final class EventListenerList {
+
+    private static final EventListener[] EMPTY = new EventListener[0];
+
+    private volatile EventListener[] mListeners = EMPTY;
+
+    /**
+     * Adds {@code listener} at the end of the list, unless it's already in it
+     */
+    synchronized void add(EventListener listener) {
+        EventListener[] listeners = mListeners;
+        if (indexOf(listeners, listener) != -1) {
+            return;
+        }
+        EventListener[] copy = new EventListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, copy, 0, listeners.length);
+        copy[listeners.length] = listener;
+        mListeners = copy;
+    }
+
+    synchronized void remove(EventListener listener) {
+        EventListener[] listeners = mListeners;
+        int index = indexOf(listeners, listener);
+        if (index == -1) {
+            return;
+        }
+        if (listeners.length == 1) {
+            mListeners = EMPTY;
+            return;
+        }
+        EventListener[] copy = new EventListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, copy, 0, index);
+        System.arraycopy(listeners, index + 1, copy, index, listeners.length - index - 1);
+        mListeners = copy;
+    }
+
+    /**
+     * @return the current listeners. The array is never modified, so it can be iterated over while
+     * listeners are added or removed
+     */
+    EventListener[] getArray() {
+        return mListeners;
+    }
+
+    private static int indexOf(EventListener[] listeners, EventListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.nispok.snackbar;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.ViewGroup;
+
+import com.nispok.snackbar.enums.DismissReason;
+import com.nispok.snackbar.enums.SnackbarPriority;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * A {@link Snackbar} of {@link SnackbarPriority#IDLE} priority waiting for the main thread to go
+ * idle, or for its maximum delay to pass on the {@link SnackbarTimer}, before
+ * {@link SnackbarManager} shows it. The Activity or parent it's shown in are held weakly.
+ */
+final class IdleShow extends SnackbarTimer.Entry implements MessageQueue.IdleHandler {
+
+    private final Snackbar mSnackbar;
+    private final WeakReference<Activity> mActivity;
+    private final WeakReference<ViewGroup> mParent;
+    private final boolean mUsePhoneLayout;
+
+    IdleShow(Snackbar snackbar, Activity activity) {
+        mSnackbar = snackbar;
+        mActivity = new WeakReference<Activity>(activity);
+        mParent = null;
+        mUsePhoneLayout = false;
+    }
+
+    IdleShow(Snackbar snackbar, ViewGroup parent, boolean usePhoneLayout) {
+        mSnackbar = snackbar;
+        mActivity = null;
+        mParent = new WeakReference<ViewGroup>(parent);
+        mUsePhoneLayout = usePhoneLayout;
+    }
+
+    void schedule(long maxDelay) {
+        mSnackbar.onQueued();
+        Looper.myQueue().addIdleHandler(this);
+        SnackbarTimer timer = SnackbarManager.getTimer();
+        timer.schedule(this, SnackbarManager.getClock().uptimeMillis() + maxDelay);
+    }
+
+    /**
+     * @param reason the result of the Snackbar, which won't be shown
+     */
+    void cancel(DismissReason reason) {
+        Looper.myQueue().removeIdleHandler(this);
+        SnackbarManager.getTimer().cancel(this);
+        mSnackbar.onDequeued(reason);
+    }
+
+    boolean isHostedBy(Activity activity) {
+        if (mActivity != null) {
+            return mActivity.get() == activity;
+        }
+        ViewGroup parent = mParent.get();
+        return parent != null && parent.getContext() == activity;
+    }
+
+    @Override
+    public boolean queueIdle() {
+        SnackbarManager.getTimer().cancel(this);
+        SnackbarManager.onIdleShowDue(this);
+        return false;
+    }
+
+    @Override
+    void onExpired() {
+        Looper.myQueue().removeIdleHandler(this);
+        SnackbarManager.onIdleShowDue(this);
+    }
+
+    /**
+     * Shows the Snackbar, unless the screen it was meant for is gone
+     */
+    void show() {
+        if (mActivity != null) {
+            Activity activity = mActivity.get();
+            if (activity != null) {
+                SnackbarManager.showNow(mSnackbar, activity);
+                return;
+            }
+        } else {
+            ViewGroup parent = mParent.get();
+            if (parent != null) {
+                SnackbarManager.showNow(mSnackbar, parent, mUsePhoneLayout);
+                return;
+            }
+        }
+        mSnackbar.onDequeued(DismissReason.HOST_DESTROYED);
+    }
+}
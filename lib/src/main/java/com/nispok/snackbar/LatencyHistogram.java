@@ -0,0 +1,76 @@
+package com.nispok.snackbar;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket log-linear histogram of durations in nanoseconds. Every power of two is split into
+ * {@link #SUB_BUCKETS} linear buckets, so a bucket is never wider than 1/8 of its lower bound.
+ * Counts are spread over a few stripes of atomic counters picked by thread, so recording is
+ * lock-free and safe from any thread.
+ */
+class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Anything under 2^10ns (~1us) goes in the first bucket
+    static final int MIN_EXPONENT = 10;
+    // Anything from 2^36ns (~69s) on goes in the last bucket
+    static final int MAX_EXPONENT = 36;
+    static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS + 2;
+    private static final int STRIPES = 4;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(STRIPES * BUCKETS);
+
+    void record(long nanos) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        mCounts.incrementAndGet(stripe * BUCKETS + bucketOf(nanos));
+    }
+
+    /**
+     * @return the count of every bucket, summed over all stripes
+     */
+    long[] snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                counts[bucket] += mCounts.get(stripe * BUCKETS + bucket);
+            }
+        }
+        return counts;
+    }
+
+    void reset() {
+        for (int i = 0; i < mCounts.length(); i++) {
+            mCounts.set(i, 0);
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < 1L << MIN_EXPONENT) {
+            return 0;
+        }
+        if (nanos >= 1L << MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the smallest value that doesn't fit in {@code bucket} anymore, or
+     * 2^{@link #MAX_EXPONENT} for the last, unbounded bucket
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket == 0) {
+            return 1L << MIN_EXPONENT;
+        }
+        if (bucket >= BUCKETS - 1) {
+            return 1L << MAX_EXPONENT;
+        }
+        int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+        int subBucket = (bucket - 1) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width;
+    }
+}
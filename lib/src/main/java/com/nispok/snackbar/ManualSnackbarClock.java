@@ -0,0 +1,37 @@
+package com.nispok.snackbar;
+
+/**
+ * A {@link SnackbarClock} that only moves when told to. Part of the library as test support for
+ * apps, it's never used unless installed: once set with
+ * {@link SnackbarManager#setClock(SnackbarClock)}, {@link #advance(long)} expires the
+ * {@link Snackbar} timeouts that fall due right away, on the calling thread, instead of waiting for
+ * them in real time.
+ */
+public class ManualSnackbarClock implements SnackbarClock {
+
+    private long mUptimeMillis;
+
+    @Override
+    public long uptimeMillis() {
+        return mUptimeMillis;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return false;
+    }
+
+    /**
+     * Moves this clock forward, dismissing the {@link Snackbar}s whose time is up. Must be called
+     * from the main thread
+     *
+     * @param millis milliseconds to move forward, must not be negative
+     */
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time can't go backwards: " + millis);
+        }
+        mUptimeMillis += millis;
+        SnackbarManager.onClockAdvanced(this);
+    }
+}
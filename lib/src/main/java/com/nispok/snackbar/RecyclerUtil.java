@@ -3,20 +3,176 @@ package com.nispok.snackbar;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * RecyclerView is a provided dependency, so in order to avoid burdening developers with a
  * potentially unnecessary dependency, we move the RecyclerView-related code here and only call it
  * if we confirm that they've provided it themselves.
  */
 class RecyclerUtil {
-    static void setScrollListener(final Snackbar snackbar, View view) {
-        RecyclerView recyclerView = (RecyclerView) view;
-        recyclerView.setOnScrollListener(new RecyclerView.OnScrollListener() {
+
+    static ScrollAttachment createScrollAttachment(Snackbar snackbar, View view) {
+        return new RecyclerViewScrollAttachment(snackbar, (RecyclerView) view);
+    }
+
+    private static class RecyclerViewScrollAttachment extends ScrollAttachment {
+
+        private final RecyclerView mRecyclerView;
+
+        RecyclerViewScrollAttachment(Snackbar snackbar, RecyclerView recyclerView) {
+            super(snackbar);
+            mRecyclerView = recyclerView;
+        }
+
+        @Override
+        void onAttach() {
+            Forwarder.get(mRecyclerView).add(this);
+        }
+
+        @Override
+        void onDetach() {
+            Forwarder.get(mRecyclerView).remove(this);
+        }
+    }
+
+    /**
+     * The one scroll listener of a RecyclerView while at least one Snackbar is attached to it, kept
+     * as a tag of the RecyclerView. It's added with {@code addOnScrollListener()} where the
+     * RecyclerView has it (22.0 and later). Older versions only take one listener, so the app's is
+     * wrapped and put back once the last attachment is gone, like
+     * {@link AbsListViewScrollAttachment} does.
+     */
+    private static final class Forwarder {
+
+        private static Method addOnScrollListener;
+        private static Method removeOnScrollListener;
+        private static Field scrollListenerField;
+        private static boolean reflectionDone;
+
+        private final RecyclerView mRecyclerView;
+        private final List<RecyclerViewScrollAttachment> mAttachments =
+                new ArrayList<RecyclerViewScrollAttachment>();
+        private RecyclerView.OnScrollListener mAppListener;
+
+        private final RecyclerView.OnScrollListener mListener = new RecyclerView.OnScrollListener() {
             @Override
             public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
-                super.onScrollStateChanged(recyclerView, newState);
-                snackbar.dismiss();
+                if (mAppListener != null) {
+                    mAppListener.onScrollStateChanged(recyclerView, newState);
+                }
+            }
+
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (mAppListener != null) {
+                    mAppListener.onScrolled(recyclerView, dx, dy);
+                }
+                // Attachments remove themselves when their Snackbar is dismissed
+                for (int i = mAttachments.size() - 1; i >= 0; i--) {
+                    if (i < mAttachments.size()) {
+                        mAttachments.get(i).onScrolled(Math.abs(dx) + Math.abs(dy));
+                    }
+                }
+            }
+        };
+
+        private Forwarder(RecyclerView recyclerView) {
+            mRecyclerView = recyclerView;
+        }
+
+        static Forwarder get(RecyclerView recyclerView) {
+            Forwarder forwarder = (Forwarder) recyclerView.getTag(R.id.sb__scroll_forwarder);
+            if (forwarder == null) {
+                forwarder = new Forwarder(recyclerView);
+                recyclerView.setTag(R.id.sb__scroll_forwarder, forwarder);
+            }
+            return forwarder;
+        }
+
+        void add(RecyclerViewScrollAttachment attachment) {
+            if (mAttachments.isEmpty()) {
+                register();
+            }
+            mAttachments.add(attachment);
+        }
+
+        void remove(RecyclerViewScrollAttachment attachment) {
+            if (!mAttachments.remove(attachment) || !mAttachments.isEmpty()) {
+                return;
+            }
+            unregister();
+            mRecyclerView.setTag(R.id.sb__scroll_forwarder, null);
+        }
+
+        private void register() {
+            fetchReflection();
+            if (addOnScrollListener != null && removeOnScrollListener != null
+                    && invoke(addOnScrollListener)) {
+                return;
+            }
+            mAppListener = getScrollListener();
+            mRecyclerView.setOnScrollListener(mListener);
+        }
+
+        private void unregister() {
+            if (addOnScrollListener != null && removeOnScrollListener != null
+                    && invoke(removeOnScrollListener)) {
+                return;
+            }
+            // Leave alone a listener the app set while we were attached
+            if (scrollListenerField == null || getScrollListener() == mListener) {
+                mRecyclerView.setOnScrollListener(mAppListener);
+            }
+            mAppListener = null;
+        }
+
+        private boolean invoke(Method method) {
+            try {
+                method.invoke(mRecyclerView, mListener);
+                return true;
+            } catch (IllegalAccessException ignored) {
+                return false;
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        private RecyclerView.OnScrollListener getScrollListener() {
+            if (scrollListenerField == null) {
+                return null;
+            }
+            try {
+                return (RecyclerView.OnScrollListener) scrollListenerField.get(mRecyclerView);
+            } catch (IllegalAccessException ignored) {
+                return null;
+            }
+        }
+
+        private static void fetchReflection() {
+            if (reflectionDone) {
+                return;
+            }
+            reflectionDone = true;
+            try {
+                addOnScrollListener = RecyclerView.class.getMethod("addOnScrollListener",
+                        RecyclerView.OnScrollListener.class);
+                removeOnScrollListener = RecyclerView.class.getMethod("removeOnScrollListener",
+                        RecyclerView.OnScrollListener.class);
+                return;
+            } catch (NoSuchMethodException ignored) {
+                // Older RecyclerView, fall back to wrapping its single listener
+            }
+            try {
+                scrollListenerField = RecyclerView.class.getDeclaredField("mScrollListener");
+                scrollListenerField.setAccessible(true);
+            } catch (NoSuchFieldException ignored) {
+                // The app's listener will be lost, as it was before
             }
-        });
+        }
     }
 }
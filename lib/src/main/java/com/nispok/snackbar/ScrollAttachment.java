@@ -0,0 +1,51 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.enums.DismissReason;
+
+/**
+ * Dismisses a {@link Snackbar} once the scrolling view it's attached to has scrolled far enough.
+ * It only listens while the Snackbar is showing, and listens next to the view's own scroll
+ * listener instead of replacing it.
+ */
+abstract class ScrollAttachment {
+
+    private final Snackbar mSnackbar;
+    private boolean mAttached;
+    private float mDistance;
+
+    ScrollAttachment(Snackbar snackbar) {
+        mSnackbar = snackbar;
+    }
+
+    final void attach() {
+        if (!mAttached) {
+            mAttached = true;
+            mDistance = 0;
+            onAttach();
+        }
+    }
+
+    final void detach() {
+        if (mAttached) {
+            mAttached = false;
+            onDetach();
+        }
+    }
+
+    /**
+     * Called by subclasses with the distance scrolled since the last call, in pixels
+     */
+    final void onScrolled(float distance) {
+        if (!mAttached) {
+            return;
+        }
+        mDistance += Math.abs(distance);
+        if (mDistance >= mSnackbar.getScrollDismissDistance()) {
+            mSnackbar.dismiss(DismissReason.SCROLL);
+        }
+    }
+
+    abstract void onAttach();
+
+    abstract void onDetach();
+}
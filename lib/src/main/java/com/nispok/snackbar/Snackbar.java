@@ -10,6 +10,8 @@ import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.AnimRes;
 import android.support.annotation.ColorRes;
 import android.support.annotation.StringRes;
@@ -18,12 +20,25 @@ import android.view.*;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 import android.widget.*;
+import com.nispok.snackbar.enums.DismissReason;
+import com.nispok.snackbar.enums.SnackbarEventType;
+import com.nispok.snackbar.enums.SnackbarPriority;
+import com.nispok.snackbar.enums.SnackbarState;
 import com.nispok.snackbar.enums.SnackbarType;
 import com.nispok.snackbar.layouts.SnackbarLayout;
 import com.nispok.snackbar.listeners.ActionClickListener;
+import com.nispok.snackbar.listeners.AsyncEventListener;
 import com.nispok.snackbar.listeners.EventListener;
+import com.nispok.snackbar.listeners.OffsetListener;
+import com.nispok.snackbar.listeners.RestoreListener;
+import com.nispok.snackbar.listeners.ResultListener;
 import com.nispok.snackbar.listeners.SwipeDismissTouchListener;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 /**
  * View that provides quick feedback about an operation in a small popup at the base of the screen
  */
@@ -31,6 +46,22 @@ public class Snackbar extends SnackbarLayout {
 
 	public static int TOP = Gravity.TOP;
 	public static int BOTTOM = Gravity.BOTTOM;
+	static final int TIMER_PAUSED_BY_TOUCH = 1;
+	static final int TIMER_PAUSED_BY_HOST = 1 << 1;
+	// Trace section names, indexed by SnackbarEventType ordinal
+	private static final String[] EVENT_SECTIONS = {
+			"Snackbar#onShow",
+			"Snackbar#onShowByReplace",
+			"Snackbar#onShown",
+			"Snackbar#onDismiss",
+			"Snackbar#onDismissByReplace",
+			"Snackbar#onDismissed",
+			"Snackbar#onActionClicked"
+	};
+	private static final String ON_SCREEN_SECTION = "Snackbar on screen";
+	private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+	private static int nextId;
+	private int mSnackbarId = ++nextId;
 	private int mPosition = BOTTOM;
 	private int mUndefinedColor = -10000;
 	private int mColor = mUndefinedColor;
@@ -45,42 +76,203 @@ public class Snackbar extends SnackbarLayout {
 	private int mMarginBottom = -1;
 	private int mMarginLeft = -1;
 	private int mMarginRight = -1;
-	private long mSnackbarStart;
-    private long mSnackbarFinish;
+	private boolean mIsTimerArmed;
+	private int mTimerPausedBy;
+	private long mTimerStart = -1;
     private long mTimeRemaining = -1;
     private CharSequence mActionLabel;
     private boolean mAnimated = true;
     private boolean mIsReplacePending = false;
     private boolean mIsShowingByReplace = false;
+    private boolean mIsRestored = false;
     private long mCustomDuration = -1;
     private ActionClickListener mActionClickListener;
     private boolean mShouldAllowMultipleActionClicks;
     private boolean mActionClicked;
     private boolean mShouldDismissOnActionClicked = true;
     private EventListener mEventListener;
+    private final EventListenerList mEventListeners = new EventListenerList();
+    private final List<UndoBuffer.Binding<?>> mUndoBindings = new ArrayList<UndoBuffer.Binding<?>>();
+    private AsyncEventListener mAsyncEventListener;
+    private OffsetListener mOffsetListener;
+    private float mLastVisibleHeight;
+    private float mLastTranslationX;
+    private float mLastDisplacement;
+    private Executor mAsyncEventExecutor;
     private Typeface mTextTypeface;
     private Typeface mActionTypeface;
-    private boolean mIsShowing = false;
+    private final SnackbarStateMachine mState = new SnackbarStateMachine();
     private boolean mCanSwipeToDismiss = true;
-    private boolean mIsDismissing = false;
+    private ScrollAttachment mScrollAttachment;
+    private int mScrollDismissDistance = -1;
+    private SnackbarPriority mPriority = SnackbarPriority.NORMAL;
     private Rect mWindowInsets = new Rect();
     private Rect mDisplayFrame = new Rect();
     private Point mDisplaySize = new Point();
     private Point mRealDisplaySize = new Point();
-    private Activity mTargetActivity;
+    private WeakReference<Activity> mTargetActivity;
 	private boolean mUsePhoneLayout;
-	private Runnable mDismissRunnable = new Runnable() {
-        @Override
-        public void run() {
-            dismiss();
-        }
-    };
+	private final SnackbarTimer.Entry mDismissTimer = new SnackbarTimer.Entry() {
+		@Override
+		void onExpired () {
+			mTimerStart = -1;
+			mTimeRemaining = 0;
+			dismiss(DismissReason.TIMEOUT);
+		}
+	};
 	private Runnable mRefreshLayoutParamsMarginsRunnable = new Runnable() {
 		@Override
 		public void run () {
 			refreshLayoutParamsMargins();
 		}
 	};
+	// Callbacks are created once and reused by every show/dismiss cycle of this instance
+	private final OnClickListener mActionButtonClickListener = new OnClickListener() {
+		@Override
+		public void onClick ( View view ) {
+			if (mActionClickListener != null) {
+
+				// Before calling the onActionClicked() callback, make sure:
+				// 1) The snackbar is not dismissing
+				// 2) If we aren't allowing multiple clicks, that this is the first click
+				if (mState.get() != SnackbarState.EXITING && (!mActionClicked || mShouldAllowMultipleActionClicks)) {
+
+					dispatchEvent(SnackbarEventType.ACTION_CLICKED);
+					mActionClicked = true;
+				}
+			}
+			if (mShouldDismissOnActionClicked) {
+				dismiss(DismissReason.ACTION);
+			}
+		}
+	};
+	private final SwipeDismissTouchListener.DismissCallbacks mSwipeDismissCallbacks = new SwipeDismissTouchListener.DismissCallbacks() {
+		@Override
+		public boolean canDismiss ( Object token ) {
+			return true;
+		}
+
+		@Override
+		public void onDismiss ( View view, Object token ) {
+			if (view != null) {
+				dismiss(DismissReason.SWIPE, false);
+			}
+		}
+
+		@Override
+		public void pauseTimer ( boolean shouldPause ) {
+			if (shouldPause) {
+				Snackbar.this.pauseTimer(TIMER_PAUSED_BY_TOUCH);
+			} else {
+				resumeTimer(TIMER_PAUSED_BY_TOUCH);
+			}
+		}
+	};
+	private final ViewTreeObserver.OnPreDrawListener mShowPreDrawListener = new ViewTreeObserver.OnPreDrawListener() {
+		@Override
+		public boolean onPreDraw () {
+			SnackbarTrace.beginSection("Snackbar#onFirstPreDraw");
+			try {
+				getViewTreeObserver().removeOnPreDrawListener(this);
+				SnackbarMetrics metrics = metrics();
+				if (metrics != null) {
+					mFirstPreDrawNanos = System.nanoTime();
+					metrics.onFirstPreDraw(Snackbar.this, mFirstPreDrawNanos);
+				}
+				SnackbarManager.onSnackbarLaidOut(Snackbar.this);
+				dispatchShowEvents(!mIsAnimatingIn);
+				return true;
+			} finally {
+				SnackbarTrace.endSection();
+			}
+		}
+	};
+	// Stays registered while showing, so the OffsetListener and anchor views follow every frame
+	private final ViewTreeObserver.OnPreDrawListener mOffsetPreDrawListener = new ViewTreeObserver.OnPreDrawListener() {
+		@Override
+		public boolean onPreDraw () {
+			dispatchOffset(getVisibleHeight(), getTranslationX());
+			return true;
+		}
+	};
+	private final Animation.AnimationListener mSlideInListener = new Animation.AnimationListener() {
+		@Override
+		public void onAnimationStart ( Animation animation ) {
+		}
+
+		@Override
+		public void onAnimationEnd ( Animation animation ) {
+			SnackbarTrace.beginSection("Snackbar#onEnterAnimationEnd");
+			try {
+				reportEnterAnimationEnd();
+				onEntered();
+				dispatchEvent(SnackbarEventType.SHOWN);
+				mIsShowingByReplace = false; // reset flag
+
+				post(mStartTimerRunnable);
+			} finally {
+				SnackbarTrace.endSection();
+			}
+		}
+
+		@Override
+		public void onAnimationRepeat ( Animation animation ) {
+		}
+	};
+	private final Animation.AnimationListener mSlideOutListener = new Animation.AnimationListener() {
+		@Override
+		public void onAnimationStart ( Animation animation ) {
+		}
+
+		@Override
+		public void onAnimationEnd ( Animation animation ) {
+			post(mFinishRunnable);
+		}
+
+		@Override
+		public void onAnimationRepeat ( Animation animation ) {
+		}
+	};
+	private final Runnable mStartTimerRunnable = new Runnable() {
+		@Override
+		public void run () {
+			if (shouldStartTimer()) {
+				startTimer();
+			}
+		}
+	};
+	private final Runnable mFinishRunnable = new Runnable() {
+		@Override
+		public void run () {
+			SnackbarTrace.beginSection("Snackbar#onExitAnimationEnd");
+			try {
+				finish();
+			} finally {
+				SnackbarTrace.endSection();
+			}
+		}
+	};
+	private final Runnable mDismissRunnable = new Runnable() {
+		@Override
+		public void run () {
+			dismiss(DismissReason.PROGRAMMATIC);
+		}
+	};
+	private SwipeDismissTouchListener mSwipeDismissTouchListener;
+	private TextView mTextView;
+	private TextView mActionView;
+	private Animation mSlideIn;
+	private Animation mSlideOut;
+	private int mSlideInResource;
+	private int mSlideOutResource;
+	private boolean mIsAnimatingIn;
+	private DismissReason mDismissReason;
+	private SnackbarResult mResult = new SnackbarResult();
+	private ResultListener mResultListener;
+	// Timestamps of the current show, only taken while SnackbarMetrics are installed
+	private long mShowRequestedNanos;
+	private long mFirstPreDrawNanos;
+	private long mShownNanos;
 
 	private Snackbar ( Context context ) {
 		super(context);
@@ -92,7 +284,39 @@ public class Snackbar extends SnackbarLayout {
 	}
 
 	public static Snackbar with ( Context context ) {
-		return new Snackbar(context);
+		Snackbar pooled = SnackbarPrewarmer.takePooled(context);
+		return pooled != null ? pooled : new Snackbar(context);
+	}
+
+	/**
+	 * Makes the first {@link Snackbar} of the session as fast to show as the next ones. Classes,
+	 * resources and animations are loaded on a background thread, and if {@code context} is an
+	 * {@link Activity} a Snackbar is also inflated for it once the main thread is idle, to be
+	 * returned by the next {@link #with(Context)} of that Activity. Call it from
+	 * {@link android.app.Application#onCreate()} or {@link Activity#onCreate(android.os.Bundle)}
+	 *
+	 * @param context
+	 */
+	public static void prewarm ( Context context ) {
+		SnackbarPrewarmer.start(context);
+	}
+
+	/**
+	 * @return a new {@link Snackbar} with its views already inflated
+	 */
+	static Snackbar inflate ( Context context ) {
+		Snackbar snackbar = new Snackbar(context);
+		snackbar.inflateTemplate(context);
+		return snackbar;
+	}
+
+	private void inflateTemplate ( Context context ) {
+		if (mTextView == null) {
+			// Only inflate once, a Snackbar that's shown again reuses its views
+			LayoutInflater.from(context).inflate(R.layout.sb__template, this, true);
+			mTextView = (TextView) findViewById(R.id.sb__text);
+			mActionView = (TextView) findViewById(R.id.sb__action);
+		}
 	}
 
 	static boolean shouldUsePhoneLayout ( Context context ) {
@@ -389,13 +613,121 @@ public class Snackbar extends SnackbarLayout {
     }
 
 	/**
-	 * Sets the listener to be called when the {@link Snackbar} is dismissed.
+	 * Sets the listener to be called when the {@link Snackbar} is dismissed. Replaces the listener
+	 * set by a previous call, but not the ones added with {@link #addEventListener(EventListener)}
 	 *
 	 * @param listener
 	 * @return
 	 */
 	public Snackbar eventListener ( EventListener listener ) {
+		if (mEventListener != null) {
+			mEventListeners.remove(mEventListener);
+		}
 		mEventListener = listener;
+		if (listener != null) {
+			mEventListeners.add(listener);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a listener to be called for the events of this {@link Snackbar}, after the ones added
+	 * before it. See {@link SnackbarManager#addEventListener(EventListener)} to listen to all
+	 * Snackbars
+	 *
+	 * @param listener
+	 * @return
+	 */
+	public Snackbar addEventListener ( EventListener listener ) {
+		mEventListeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Sets the listener told how this {@link Snackbar} ended, once per show
+	 *
+	 * @param listener
+	 * @return
+	 */
+	public Snackbar resultListener ( ResultListener listener ) {
+		mResultListener = listener;
+		return this;
+	}
+
+	/**
+	 * Ties {@code operation} to the next show of this {@link Snackbar}: it's held back in
+	 * {@code buffer} while the Snackbar is on screen, undone if the action is clicked, and
+	 * committed with the buffer's other operations once this Snackbar goes away otherwise, or if
+	 * it's dropped before being shown. Meant to be used with an "Undo" action label
+	 *
+	 * @param buffer    the buffer committing the operation
+	 * @param operation the operation, e.g. the id of a deleted item
+	 * @return
+	 */
+	public <T> Snackbar undoable ( UndoBuffer<T> buffer, T operation ) {
+		mUndoBindings.add(buffer.bind(operation));
+		return this;
+	}
+
+	/**
+	 * Removes a listener set with {@link #eventListener(EventListener)} or
+	 * {@link #addEventListener(EventListener)}
+	 *
+	 * @param listener
+	 * @return
+	 */
+	public Snackbar removeEventListener ( EventListener listener ) {
+		mEventListeners.remove(listener);
+		if (listener == mEventListener) {
+			mEventListener = null;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets how soon {@link SnackbarManager} shows this {@link Snackbar}. With
+	 * {@link SnackbarPriority#IDLE} it waits for the main thread to be idle, see
+	 * {@link SnackbarManager#setIdleMaxDelay(long)}
+	 *
+	 * @param priority
+	 * @return
+	 */
+	public Snackbar priority ( SnackbarPriority priority ) {
+		mPriority = priority;
+		return this;
+	}
+
+	SnackbarPriority getPriority () {
+		return mPriority;
+	}
+
+	/**
+	 * Sets the listener told about the position of this {@link Snackbar} on every frame while it
+	 * moves, to move other views along with it. Needs API 11, it's never called on older versions
+	 *
+	 * @param listener
+	 * @return
+	 */
+	public Snackbar offsetListener ( OffsetListener listener ) {
+		mOffsetListener = listener;
+		return this;
+	}
+
+	/**
+	 * Delivers the events of this {@link Snackbar} to {@code listener} on {@code executor}, as
+	 * {@link SnackbarEvent}s. Meant for heavy work like logging to disk, listeners updating the UI
+	 * should use {@link #eventListener(EventListener)}
+	 *
+	 * @param executor the executor to run {@code listener} on, e.g. a single thread executor
+	 * @param listener
+	 * @return
+	 */
+	public Snackbar asyncEventListener ( Executor executor, AsyncEventListener listener ) {
+		if (listener != null && executor == null) {
+			throw new IllegalArgumentException("An Executor is required to deliver events asynchronously");
+		}
+		mAsyncEventExecutor = executor;
+		mAsyncEventListener = listener;
 		return this;
 	}
 
@@ -446,29 +778,20 @@ public class Snackbar extends SnackbarLayout {
 
 	/**
 	 * Attaches this {@link Snackbar} to an AbsListView (ListView, GridView, ExpandableListView) so it dismisses when
-	 * the list is scrolled
+	 * the list is scrolled by {@link #scrollDismissDistance(int)}. The list's own scroll listener keeps being called
 	 *
 	 * @param absListView
 	 *
 	 * @return
 	 */
 	public Snackbar attachToAbsListView ( AbsListView absListView ) {
-		absListView.setOnScrollListener(new AbsListView.OnScrollListener() {
-			@Override
-			public void onScrollStateChanged ( AbsListView view, int scrollState ) {
-				dismiss();
-			}
-
-			@Override
-			public void onScroll ( AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount ) {
-			}
-		});
-
+		setScrollAttachment(new AbsListViewScrollAttachment(this, absListView));
 		return this;
 	}
 
 	/**
-	 * Attaches this {@link Snackbar} to a RecyclerView so it dismisses when the list is scrolled
+	 * Attaches this {@link Snackbar} to a RecyclerView so it dismisses when the list is scrolled by
+	 * {@link #scrollDismissDistance(int)}. The RecyclerView's own scroll listeners keep being called
 	 *
 	 * @param recyclerView The RecyclerView instance to attach to.
 	 *
@@ -480,7 +803,7 @@ public class Snackbar extends SnackbarLayout {
 			Class.forName("android.support.v7.widget.RecyclerView");
 
 			// We got here, so now we can safely check
-			RecyclerUtil.setScrollListener(this, recyclerView);
+			setScrollAttachment(RecyclerUtil.createScrollAttachment(this, recyclerView));
 		} catch (ClassNotFoundException ignored) {
 			throw new IllegalArgumentException("RecyclerView not found. Did you add it to your dependencies?");
 		}
@@ -488,6 +811,50 @@ public class Snackbar extends SnackbarLayout {
 		return this;
 	}
 
+	/**
+	 * Attaches this {@link Snackbar} to any view that scrolls its own content (ScrollView,
+	 * NestedScrollView, WebView...) so it dismisses when the view is scrolled by
+	 * {@link #scrollDismissDistance(int)}. A single scroll listener is shared by all the Snackbars of
+	 * a window, and only registered while one of them is showing
+	 *
+	 * @param view The scrolling view to attach to
+	 *
+	 * @return
+	 */
+	public Snackbar attachToScrollingView ( View view ) {
+		setScrollAttachment(new ViewScrollAttachment(this, view));
+		return this;
+	}
+
+	/**
+	 * Sets how far the list this {@link Snackbar} is attached to must scroll to dismiss it. Defaults
+	 * to the touch slop, so that taps and layout changes don't dismiss it
+	 *
+	 * @param distance distance in pixels
+	 * @return
+	 */
+	public Snackbar scrollDismissDistance ( int distance ) {
+		mScrollDismissDistance = distance;
+		return this;
+	}
+
+	int getScrollDismissDistance () {
+		if (mScrollDismissDistance < 0) {
+			mScrollDismissDistance = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+		}
+		return mScrollDismissDistance;
+	}
+
+	void setScrollAttachment ( ScrollAttachment attachment ) {
+		if (mScrollAttachment != null) {
+			mScrollAttachment.detach();
+		}
+		mScrollAttachment = attachment;
+		if (mState.isShowing()) {
+			attachment.attach();
+		}
+	}
+
 	/**
 	 * Use a custom typeface for this Snackbar's text
 	 *
@@ -535,156 +902,127 @@ public class Snackbar extends SnackbarLayout {
 	}
 
 	private MarginLayoutParams init ( Context context, Activity targetActivity, ViewGroup parent, boolean usePhoneLayout ) {
-		SnackbarLayout layout = (SnackbarLayout) LayoutInflater.from(context).inflate(R.layout.sb__template, this, true);
-
-		Resources res = getResources();
-		mColor = mColor != mUndefinedColor ? mColor : res.getColor(R.color.sb__background);
-		mPosition = mPosition != -1 ? mPosition : BOTTOM;
-		mOffset = res.getDimensionPixelOffset(R.dimen.sb__offset);
-		mUsePhoneLayout = usePhoneLayout;
-		float scale = res.getDisplayMetrics().density;
-
-		MarginLayoutParams params;
-		if (mUsePhoneLayout) {
-			// Phone
-			layout.setMinimumHeight(dpToPx(mType.getMinHeight(), scale));
-			layout.setMaxHeight(dpToPx(mType.getMaxHeight(), scale));
-			layout.setBackgroundColor(mColor);
-			params = createMarginLayoutParams(parent, FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.WRAP_CONTENT);
-		} else {
-			// Tablet/desktop
-			mType = SnackbarType.SINGLE_LINE; // Force single-line
-			layout.setMinimumWidth(res.getDimensionPixelSize(R.dimen.sb__min_width));
-			layout.setMaxWidth(res.getDimensionPixelSize(R.dimen.sb__max_width));
-			layout.setBackgroundResource(R.drawable.sb__bg);
-			GradientDrawable bg = (GradientDrawable) layout.getBackground();
-			bg.setColor(mColor);
-
-			params = createMarginLayoutParams(parent, FrameLayout.LayoutParams.WRAP_CONTENT, dpToPx(mType.getMaxHeight(), scale));
-		}
-
-		if (mDrawable != -1) {
-			setBackgroundDrawable(layout, res.getDrawable(mDrawable));
-		}
-
-		TextView snackbarText = (TextView) layout.findViewById(R.id.sb__text);
-		snackbarText.setText(mText);
-		snackbarText.setTypeface(mTextTypeface);
-
-		if (mTextColor != mUndefinedColor) {
-			snackbarText.setTextColor(mTextColor);
-		}
+		SnackbarTrace.beginSection("Snackbar#init");
+		try {
+			inflateTemplate(context);
+			SnackbarLayout layout = this;
+
+			Resources res = getResources();
+			mColor = mColor != mUndefinedColor ? mColor : res.getColor(R.color.sb__background);
+			mPosition = mPosition != -1 ? mPosition : BOTTOM;
+			mOffset = res.getDimensionPixelOffset(R.dimen.sb__offset);
+			mUsePhoneLayout = usePhoneLayout;
+			float scale = res.getDisplayMetrics().density;
+
+			MarginLayoutParams params;
+			if (mUsePhoneLayout) {
+				// Phone
+				layout.setMinimumHeight(dpToPx(mType.getMinHeight(), scale));
+				layout.setMaxHeight(dpToPx(mType.getMaxHeight(), scale));
+				layout.setBackgroundColor(mColor);
+				params = createMarginLayoutParams(parent, FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.WRAP_CONTENT);
+			} else {
+				// Tablet/desktop
+				mType = SnackbarType.SINGLE_LINE; // Force single-line
+				layout.setMinimumWidth(res.getDimensionPixelSize(R.dimen.sb__min_width));
+				layout.setMaxWidth(res.getDimensionPixelSize(R.dimen.sb__max_width));
+				layout.setBackgroundResource(R.drawable.sb__bg);
+				GradientDrawable bg = (GradientDrawable) layout.getBackground();
+				bg.setColor(mColor);
+
+				params = createMarginLayoutParams(parent, FrameLayout.LayoutParams.WRAP_CONTENT, dpToPx(mType.getMaxHeight(), scale));
+			}
 
-		snackbarText.setMaxLines(mType.getMaxLines());
+			if (mDrawable != -1) {
+				setBackgroundDrawable(layout, res.getDrawable(mDrawable));
+			}
 
-		TextView snackbarAction = (TextView) layout.findViewById(R.id.sb__action);
-		if (!TextUtils.isEmpty(mActionLabel)) {
-			requestLayout();
-			snackbarAction.setText(mActionLabel);
-			snackbarAction.setTypeface(mActionTypeface);
+			TextView snackbarText = mTextView;
+			snackbarText.setText(mText);
+			snackbarText.setTypeface(mTextTypeface);
 
-			if (mActionColor != mUndefinedColor) {
-				snackbarAction.setTextColor(mActionColor);
+			if (mTextColor != mUndefinedColor) {
+				snackbarText.setTextColor(mTextColor);
 			}
 
-			snackbarAction.setOnClickListener(new OnClickListener() {
-				@Override
-				public void onClick ( View view ) {
-					if (mActionClickListener != null) {
-
-						// Before calling the onActionClicked() callback, make sure:
-						// 1) The snackbar is not dismissing
-						// 2) If we aren't allowing multiple clicks, that this is the first click
-						if (!mIsDismissing && (!mActionClicked || mShouldAllowMultipleActionClicks)) {
-
-							mActionClickListener.onActionClicked(Snackbar.this);
-							mActionClicked = true;
-						}
-					}
-					if (mShouldDismissOnActionClicked) {
-						dismiss();
-					}
-				}
-			});
-			snackbarAction.setMaxLines(mType.getMaxLines());
-		} else {
-			snackbarAction.setVisibility(GONE);
-		}
-
-		setClickable(true);
+			snackbarText.setMaxLines(mType.getMaxLines());
 
-		if (mCanSwipeToDismiss && res.getBoolean(R.bool.sb__is_swipeable)) {
-			setOnTouchListener(new SwipeDismissTouchListener(this, null, new SwipeDismissTouchListener.DismissCallbacks() {
-				@Override
-				public boolean canDismiss ( Object token ) {
-					return true;
-				}
+			TextView snackbarAction = mActionView;
+			if (!TextUtils.isEmpty(mActionLabel)) {
+				requestLayout();
+				snackbarAction.setVisibility(VISIBLE);
+				snackbarAction.setText(mActionLabel);
+				snackbarAction.setTypeface(mActionTypeface);
 
-				@Override
-				public void onDismiss ( View view, Object token ) {
-					if (view != null) {
-						dismiss(false);
-					}
+				if (mActionColor != mUndefinedColor) {
+					snackbarAction.setTextColor(mActionColor);
 				}
 
-				@Override
-				public void pauseTimer ( boolean shouldPause ) {
-					if (isIndefiniteDuration()) {
-						return;
-					}
-					if (shouldPause) {
-						removeCallbacks(mDismissRunnable);
+				snackbarAction.setOnClickListener(mActionButtonClickListener);
+				snackbarAction.setMaxLines(mType.getMaxLines());
+			} else {
+				snackbarAction.setVisibility(GONE);
+			}
 
-						mSnackbarFinish = System.currentTimeMillis();
-					} else {
-						mTimeRemaining -= (mSnackbarFinish - mSnackbarStart);
+			setClickable(true);
 
-						startTimer(mTimeRemaining);
-					}
+			if (mCanSwipeToDismiss && res.getBoolean(R.bool.sb__is_swipeable)) {
+				if (mSwipeDismissTouchListener == null) {
+					mSwipeDismissTouchListener = new SwipeDismissTouchListener(this, null, mSwipeDismissCallbacks);
 				}
-			}));
-		}
+				setOnTouchListener(mSwipeDismissTouchListener);
+			} else {
+				setOnTouchListener(null);
+			}
 
-		return params;
+			return params;
+		} finally {
+			SnackbarTrace.endSection();
+		}
 	}
 
 	private void updateWindowInsets ( Activity targetActivity, Rect outInsets ) {
-		outInsets.left = outInsets.top = outInsets.right = outInsets.bottom = 0;
+		SnackbarTrace.beginSection("Snackbar#updateWindowInsets");
+		try {
+			outInsets.left = outInsets.top = outInsets.right = outInsets.bottom = 0;
 
-		if (targetActivity == null) {
-			return;
-		}
+			if (targetActivity == null) {
+				return;
+			}
 
-		ViewGroup decorView = (ViewGroup) targetActivity.getWindow().getDecorView();
-		Display display = targetActivity.getWindowManager().getDefaultDisplay();
+			ViewGroup decorView = (ViewGroup) targetActivity.getWindow().getDecorView();
+			Display display = targetActivity.getWindowManager().getDefaultDisplay();
 
-		boolean isTranslucent = isNavigationBarTranslucent(targetActivity);
-		boolean isHidden = isNavigationBarHidden(decorView);
+			boolean isTranslucent = isNavigationBarTranslucent(targetActivity);
+			boolean isHidden = isNavigationBarHidden(decorView);
 
-		Rect dispFrame = mDisplayFrame;
-		Point realDispSize = mRealDisplaySize;
-		Point dispSize = mDisplaySize;
+			Rect dispFrame = mDisplayFrame;
+			Point realDispSize = mRealDisplaySize;
+			Point dispSize = mDisplaySize;
 
-		decorView.getWindowVisibleDisplayFrame(dispFrame);
+			decorView.getWindowVisibleDisplayFrame(dispFrame);
 
-		DisplayCompat.getRealSize(display, realDispSize);
-		DisplayCompat.getSize(display, dispSize);
+			DisplayCompat.getRealSize(display, realDispSize);
+			DisplayCompat.getSize(display, dispSize);
 
-		if (dispSize.x < realDispSize.x) {
-			// navigation bar is placed on right side of the screen
-			if (isTranslucent || isHidden) {
-				int navBarWidth = realDispSize.x - dispSize.x;
-				int overlapWidth = realDispSize.x - dispFrame.right;
-				outInsets.right = Math.max(Math.min(navBarWidth, overlapWidth), 0);
-			}
-		} else if (dispSize.y < realDispSize.y) {
-			// navigation bar is placed on bottom side of the screen
+			if (dispSize.x < realDispSize.x) {
+				// navigation bar is placed on right side of the screen
+				if (isTranslucent || isHidden) {
+					int navBarWidth = realDispSize.x - dispSize.x;
+					int overlapWidth = realDispSize.x - dispFrame.right;
+					outInsets.right = Math.max(Math.min(navBarWidth, overlapWidth), 0);
+				}
+			} else if (dispSize.y < realDispSize.y) {
+				// navigation bar is placed on bottom side of the screen
 
-			if (isTranslucent || isHidden) {
-				int navBarHeight = realDispSize.y - dispSize.y;
-				int overlapHeight = realDispSize.y - dispFrame.bottom;
-				outInsets.bottom = Math.max(Math.min(navBarHeight, overlapHeight), 0);
+				if (isTranslucent || isHidden) {
+					int navBarHeight = realDispSize.y - dispSize.y;
+					int overlapHeight = realDispSize.y - dispFrame.bottom;
+					outInsets.bottom = Math.max(Math.min(navBarHeight, overlapHeight), 0);
+				}
 			}
+		} finally {
+			SnackbarTrace.endSection();
 		}
 	}
 
@@ -703,12 +1041,26 @@ public class Snackbar extends SnackbarLayout {
 	    show(parent, usePhoneLayout);
     }
 
+	/**
+	 * Displays a {@link Snackbar} restored from a {@link SavedState} in the new instance of the
+	 * {@link Activity} that was showing it. The enter animation is skipped and the timer continues
+	 * with the time that was left.
+	 */
+	void showRestored ( Activity targetActivity ) {
+		mIsRestored = true;
+		if (targetActivity instanceof RestoreListener) {
+			((RestoreListener) targetActivity).onSnackbarRestored(this);
+		}
+		show(targetActivity);
+	}
+
 	/**
 	 * Displays the {@link Snackbar} at the bottom of the {@link android.app.Activity} provided.
 	 *
 	 * @param targetActivity
 	 */
 	public void show ( Activity targetActivity ) {
+		reportShowRequested();
 		ViewGroup root = (ViewGroup) targetActivity.findViewById(android.R.id.content);
 		boolean usePhoneLayout = shouldUsePhoneLayout(targetActivity);
 		MarginLayoutParams params = init(targetActivity, targetActivity, root, usePhoneLayout);
@@ -733,86 +1085,337 @@ public class Snackbar extends SnackbarLayout {
 	 * @param usePhoneLayout
 	 */
 	public void show ( ViewGroup parent, boolean usePhoneLayout ) {
+		reportShowRequested();
 		MarginLayoutParams params = init(parent.getContext(), null, parent, usePhoneLayout);
 		updateLayoutParamsMargins(null, params);
 		showInternal(null, params, parent);
 	}
 
 	private void showInternal ( Activity targetActivity, MarginLayoutParams params, ViewGroup parent ) {
-		parent.removeView(this);
+		SnackbarTrace.beginSection("Snackbar#showInternal");
+		try {
+			parent.removeView(this);
 
-		parent.addView(this, params);
+			parent.addView(this, params);
 
-		bringToFront();
+			bringToFront();
 
-		// As requested in the documentation for bringToFront()
-		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
-			parent.requestLayout();
-			parent.invalidate();
-		}
+			// As requested in the documentation for bringToFront()
+			if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
+				parent.requestLayout();
+				parent.invalidate();
+			}
 
-		mIsShowing = true;
-		mTargetActivity = targetActivity;
+			SnackbarMetrics metrics = metrics();
+			if (metrics != null) {
+				metrics.onViewReady(this, System.nanoTime());
+			}
 
-		getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
-			@Override
-			public boolean onPreDraw () {
-				getViewTreeObserver().removeOnPreDrawListener(this);
-				if (mEventListener != null) {
-					if (mIsShowingByReplace) {
-						mEventListener.onShowByReplace(Snackbar.this);
-					} else {
-						mEventListener.onShow(Snackbar.this);
-					}
-					if (!mAnimated) {
-						mEventListener.onShown(Snackbar.this);
-						mIsShowingByReplace = false; // reset flag
-					}
+			// Fails when already on screen and shown again in place, e.g. by SnackbarManager
+			if (mState.moveTo(SnackbarState.ENTERING)) {
+				beginShow();
+			}
+			if (mScrollAttachment != null) {
+				mScrollAttachment.attach();
+			}
+			mTargetActivity = targetActivity != null ? new WeakReference<Activity>(targetActivity) : null;
+
+			// Reading the translation needs Honeycomb
+			if ((mOffsetListener != null || SnackbarManager.hasAnchorViews())
+					&& Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+				mLastVisibleHeight = -1;
+				mLastDisplacement = 0;
+				ViewTreeObserver observer = getViewTreeObserver();
+				observer.removeOnPreDrawListener(mOffsetPreDrawListener);
+				observer.addOnPreDrawListener(mOffsetPreDrawListener);
+			}
+
+			if (SnackbarManager.isInstantAnimations()) {
+				// Test mode: don't wait for a frame or an animation
+				dispatchShowEvents(true);
+				if (shouldStartTimer()) {
+					startTimer();
 				}
-				return true;
+				return;
 			}
-		});
 
-		if (!mAnimated) {
-			if (shouldStartTimer()) {
-				startTimer();
+			mIsAnimatingIn = mAnimated && !mIsRestored;
+
+			ViewTreeObserver observer = getViewTreeObserver();
+			observer.removeOnPreDrawListener(mShowPreDrawListener);
+			observer.addOnPreDrawListener(mShowPreDrawListener);
+
+			if (!mIsAnimatingIn) {
+				if (shouldStartTimer()) {
+					startTimer();
+				}
+				return;
 			}
-			return;
+
+			startAnimation(getSlideInAnimation(), mSlideInListener);
+		} finally {
+			SnackbarTrace.endSection();
+		}
+	}
+
+	private Animation getSlideInAnimation () {
+		int resource = getInAnimation();
+		if (mSlideIn == null || mSlideInResource != resource) {
+			mSlideIn = AnimationUtils.loadAnimation(getContext(), resource);
+			mSlideInResource = resource;
+		}
+		return mSlideIn;
+	}
+
+	private Animation getSlideOutAnimation () {
+		int resource = getOutAnimation();
+		if (mSlideOut == null || mSlideOutResource != resource) {
+			mSlideOut = AnimationUtils.loadAnimation(getContext(), resource);
+			mSlideOutResource = resource;
 		}
+		return mSlideOut;
+	}
+
+	/**
+	 * Starts one of the cached animations, resetting it first since it may have run before
+	 */
+	private void startAnimation ( Animation animation, Animation.AnimationListener listener ) {
+		animation.reset();
+		animation.setAnimationListener(listener);
+		startAnimation(animation);
+	}
+
+	private void dispatchShowEvents ( boolean isShown ) {
+		if (isShown) {
+			reportEnterAnimationEnd();
+		}
+		if (mIsShowingByReplace) {
+			dispatchEvent(SnackbarEventType.SHOW_BY_REPLACE);
+		} else {
+			dispatchEvent(SnackbarEventType.SHOW);
+		}
+		if (isShown) {
+			onEntered();
+			dispatchEvent(SnackbarEventType.SHOWN);
+			mIsShowingByReplace = false; // reset flag
+		}
+	}
 
-		Animation slideIn = AnimationUtils.loadAnimation(getContext(), mPosition == TOP ? R.anim.snackbar_top_in : R.anim.snackbar_bottom_in);
-		slideIn.setAnimationListener(new Animation.AnimationListener() {
-			@Override
-			public void onAnimationStart ( Animation animation ) {
+	private void onEntered () {
+		mState.moveFrom(SnackbarState.ENTERING,
+				mTimerPausedBy != 0 ? SnackbarState.PAUSED : SnackbarState.SHOWN);
+	}
+
+	/**
+	 * Hands {@code event} to the {@link AsyncEventListener}s, then calls the listeners of this
+	 * {@link Snackbar} and the global ones in order
+	 */
+	private void dispatchEvent ( SnackbarEventType event ) {
+		AsyncEventListener globalAsyncListener = SnackbarManager.getAsyncEventListener();
+		if (mAsyncEventListener != null || globalAsyncListener != null) {
+			SnackbarEvent record = new SnackbarEvent(event, mSnackbarId, mText,
+					isDismissEvent(event) ? mDismissReason : null,
+					SnackbarManager.getClock().uptimeMillis());
+			if (mAsyncEventListener != null) {
+				mAsyncEventExecutor.execute(new AsyncEventDelivery(mAsyncEventListener, record));
+			}
+			if (globalAsyncListener != null) {
+				SnackbarManager.getAsyncEventExecutor().execute(
+						new AsyncEventDelivery(globalAsyncListener, record));
 			}
+		}
 
-			@Override
-			public void onAnimationEnd ( Animation animation ) {
-				if (mEventListener != null) {
-					mEventListener.onShown(Snackbar.this);
-					mIsShowingByReplace = false; // reset flag
-				}
+		if (event == SnackbarEventType.ACTION_CLICKED) {
+			if (mActionClickListener != null) {
+				invokeListener(null, event);
+			}
+			return;
+		}
+		// Indexed loops, so that dispatching doesn't allocate iterators
+		EventListener[] listeners = mEventListeners.getArray();
+		for (int i = 0; i < listeners.length; i++) {
+			invokeListener(listeners[i], event);
+		}
+		EventListener[] globalListeners = SnackbarManager.getEventListeners();
+		for (int i = 0; i < globalListeners.length; i++) {
+			invokeListener(globalListeners[i], event);
+		}
+	}
 
-				post(new Runnable() {
-					@Override
-					public void run () {
-						mSnackbarStart = System.currentTimeMillis();
-
-						if (mTimeRemaining == -1) {
-							mTimeRemaining = getDuration();
-						}
-						if (shouldStartTimer()) {
-							startTimer();
-						}
-					}
-				});
+	/**
+	 * Calls {@code listener}, or the {@link ActionClickListener} for
+	 * {@link SnackbarEventType#ACTION_CLICKED}, timing it for the {@link SnackbarMetrics} and the
+	 * listener budget
+	 */
+	private void invokeListener ( EventListener listener, SnackbarEventType event ) {
+		SnackbarMetrics metrics = metrics();
+		long budgetNanos = SnackbarManager.getListenerBudgetNanos();
+		boolean timed = metrics != null || budgetNanos > 0;
+		long start = timed ? System.nanoTime() : 0;
+		SnackbarTrace.beginSection(EVENT_SECTIONS[event.ordinal()]);
+		try {
+			switch (event) {
+				case SHOW:
+					listener.onShow(this);
+					break;
+				case SHOW_BY_REPLACE:
+					listener.onShowByReplace(this);
+					break;
+				case SHOWN:
+					listener.onShown(this);
+					break;
+				case DISMISS:
+					listener.onDismiss(this);
+					break;
+				case DISMISS_BY_REPLACE:
+					listener.onDismissByReplace(this);
+					break;
+				case DISMISSED:
+					listener.onDismissed(this);
+					break;
+				case ACTION_CLICKED:
+					mActionClickListener.onActionClicked(this);
+					break;
+			}
+		} finally {
+			SnackbarTrace.endSection();
+		}
+		if (timed) {
+			long duration = System.nanoTime() - start;
+			if (metrics != null) {
+				metrics.onListenerCallback(this, duration);
+			}
+			if (budgetNanos > 0 && duration > budgetNanos) {
+				SnackbarManager.onListenerOverBudget(this, event, duration);
 			}
+		}
+	}
+
+	private static boolean isDismissEvent ( SnackbarEventType event ) {
+		return event == SnackbarEventType.DISMISS || event == SnackbarEventType.DISMISS_BY_REPLACE
+				|| event == SnackbarEventType.DISMISSED;
+	}
+
+	int getSnackbarId () {
+		return mSnackbarId;
+	}
+
+	private void reportShowRequested () {
+		mFirstPreDrawNanos = 0;
+		mShownNanos = 0;
+		SnackbarMetrics metrics = metrics();
+		if (metrics != null) {
+			mShowRequestedNanos = System.nanoTime();
+			metrics.onShowRequested(this, mShowRequestedNanos);
+		}
+	}
+
+	private void reportEnterAnimationEnd () {
+		SnackbarMetrics metrics = metrics();
+		if (metrics != null) {
+			mShownNanos = System.nanoTime();
+			metrics.onEnterAnimationEnd(this, mShownNanos);
+		}
+	}
 
-            @Override
-            public void onAnimationRepeat ( Animation animation) {
-            }
-        });
-        startAnimation(slideIn);
+	long getShowRequestedNanos () {
+		return mShowRequestedNanos;
+	}
+
+	/**
+	 * @return when the first frame of the current show was drawn, or 0 if it wasn't yet
+	 */
+	long getFirstPreDrawNanos () {
+		return mFirstPreDrawNanos;
+	}
+
+	/**
+	 * @return when the current show was fully shown, or 0 if it wasn't yet
+	 */
+	long getShownNanos () {
+		return mShownNanos;
+	}
+
+	boolean hasEnterAnimation () {
+		return mIsAnimatingIn;
+	}
+
+	/**
+	 * @return the outcome of the current or last show of this {@link Snackbar}. The same object is
+	 * returned for every show, and reset when it's shown again
+	 */
+	public SnackbarResult getResult () {
+		return mResult;
+	}
+
+	boolean isPositionTop () {
+		return mPosition == TOP;
+	}
+
+	/**
+	 * @return the gap left between this {@link Snackbar} and the next one when stacked
+	 */
+	int getStackSpacing () {
+		return mUsePhoneLayout ? 0 : mOffset;
+	}
+
+	/**
+	 * @return layout params placing a view of {@code parent} where this {@link Snackbar} is
+	 */
+	MarginLayoutParams createStackLayoutParams ( ViewGroup parent ) {
+		MarginLayoutParams own = (MarginLayoutParams) getLayoutParams();
+		MarginLayoutParams params = createMarginLayoutParams(parent, own.width, FrameLayout.LayoutParams.WRAP_CONTENT);
+		params.setMargins(own.leftMargin, own.topMargin, own.rightMargin, own.bottomMargin);
+		return params;
+	}
+
+	/**
+	 * @return the installed {@link SnackbarMetrics}, or null when there's nothing to report to
+	 */
+	private static SnackbarMetrics metrics () {
+		SnackbarMetrics metrics = SnackbarManager.getMetrics();
+		return metrics != SnackbarMetrics.NONE ? metrics : null;
+	}
+
+	/**
+	 * @return how much of this {@link Snackbar}'s height is on screen, worked out from the
+	 * progress of the slide animation running, if any
+	 */
+	private float getVisibleHeight () {
+		Animation animation = getAnimation();
+		if (animation == null || (animation != mSlideIn && animation != mSlideOut)) {
+			return getHeight();
+		}
+		float fraction;
+		if (!animation.hasStarted() || animation.getStartTime() == Animation.START_ON_FIRST_FRAME) {
+			fraction = 0;
+		} else if (animation.hasEnded()) {
+			fraction = 1;
+		} else {
+			long elapsed = AnimationUtils.currentAnimationTimeMillis() - animation.getStartTime()
+					- animation.getStartOffset();
+			float progress = Math.max(0f, Math.min(1f, (float) elapsed / animation.getDuration()));
+			fraction = animation.getInterpolator().getInterpolation(progress);
+		}
+		// Both slide animations move the Snackbar by its full height
+		return getHeight() * (animation == mSlideIn ? fraction : 1 - fraction);
+	}
+
+	private void dispatchOffset ( float visibleHeight, float translationX ) {
+		if (visibleHeight != mLastVisibleHeight || translationX != mLastTranslationX) {
+			mLastVisibleHeight = visibleHeight;
+			mLastTranslationX = translationX;
+			if (mOffsetListener != null) {
+				mOffsetListener.onOffsetChanged(this, visibleHeight, translationX);
+			}
+		}
+		// Anchors come back down as the Snackbar is swiped away, and clear the whole stack
+		float swiped = getWidth() > 0 ? Math.min(1f, Math.abs(translationX) / getWidth()) : 0;
+		float displacement = visibleHeight > 0 ? visibleHeight * (1 - swiped) + Math.abs(getTranslationY()) : 0;
+		if (displacement != mLastDisplacement) {
+			mLastDisplacement = displacement;
+			SnackbarManager.displaceAnchorViews(this, mPosition == TOP ? displacement : -displacement);
+		}
 	}
 
 	private boolean shouldStartTimer () {
@@ -844,86 +1447,263 @@ public class Snackbar extends SnackbarLayout {
 		return (flags & WindowManager.LayoutParams.FLAG_TRANSLUCENT_NAVIGATION) != 0;
 	}
 
+	/**
+	 * Starts the dismiss countdown once this {@link Snackbar} is fully shown. The countdown only
+	 * runs while nothing pauses it, see {@link #pauseTimer(int)}
+	 */
 	private void startTimer () {
-		postDelayed(mDismissRunnable, getDuration());
+		mIsTimerArmed = true;
+		scheduleTimer();
+	}
+
+	/**
+	 * Pauses the dismiss countdown until {@link #resumeTimer(int)} is called with the same reason
+	 *
+	 * @param reason one of {@link #TIMER_PAUSED_BY_TOUCH} or {@link #TIMER_PAUSED_BY_HOST}
+	 */
+	void pauseTimer ( int reason ) {
+		mTimerPausedBy |= reason;
+		mState.moveFrom(SnackbarState.SHOWN, SnackbarState.PAUSED);
+		stopTimer();
+	}
+
+	void resumeTimer ( int reason ) {
+		mTimerPausedBy &= ~reason;
+		if (mTimerPausedBy == 0) {
+			mState.moveFrom(SnackbarState.PAUSED, SnackbarState.SHOWN);
+		}
+		scheduleTimer();
+	}
+
+	private void scheduleTimer () {
+		if (!mIsTimerArmed || mTimerPausedBy != 0 || mTimerStart != -1 || isIndefiniteDuration()) {
+			return;
+		}
+		if (mTimeRemaining == -1) {
+			mTimeRemaining = getDuration();
+		}
+		mTimerStart = SnackbarManager.getClock().uptimeMillis();
+		SnackbarManager.getTimer().schedule(mDismissTimer, mTimerStart + mTimeRemaining);
 	}
 
-	private void startTimer ( long duration) {
-		postDelayed(mDismissRunnable, duration);
+	private void stopTimer () {
+		if (mTimerStart == -1) {
+			return;
+		}
+		SnackbarManager.getTimer().cancel(mDismissTimer);
+		mTimeRemaining = getTimeRemaining();
+		mTimerStart = -1;
+	}
+
+	/**
+	 * @return the time in milliseconds left before this {@link Snackbar} is dismissed
+	 */
+	long getTimeRemaining () {
+		if (mTimeRemaining == -1) {
+			return getDuration();
+		}
+		if (mTimerStart == -1) {
+			return mTimeRemaining;
+		}
+		return Math.max(0, mTimeRemaining - (SnackbarManager.getClock().uptimeMillis() - mTimerStart));
 	}
 
     public void dismissByReplace () {
 	    mIsReplacePending = true;
-	    dismiss();
+	    dismiss(DismissReason.REPLACE);
     }
 
+	/**
+	 * Dismisses this {@link Snackbar}. Can be called from any thread, and only the first call of a
+	 * showing Snackbar does anything
+	 */
 	public void dismiss () {
-		dismiss(mAnimated);
+		if (Looper.myLooper() != Looper.getMainLooper()) {
+			MAIN_HANDLER.post(mDismissRunnable);
+			return;
+		}
+		dismiss(DismissReason.PROGRAMMATIC);
+	}
+
+	void dismiss ( DismissReason reason ) {
+		dismiss(reason, mAnimated);
 	}
 
-	private void dismiss ( boolean animate ) {
-		if (mIsDismissing) {
+	private void dismiss ( DismissReason reason, boolean animate ) {
+		if (!mState.moveTo(SnackbarState.EXITING)) {
 			return;
 		}
 
-		mIsDismissing = true;
+		mIsTimerArmed = false;
+		mDismissReason = reason;
+		stopTimer();
 
-		if (mEventListener != null && mIsShowing) {
-			if (mIsReplacePending) {
-				mEventListener.onDismissByReplace(Snackbar.this);
-			} else {
-				mEventListener.onDismiss(Snackbar.this);
-			}
+		SnackbarMetrics metrics = metrics();
+		if (metrics != null) {
+			metrics.onDismissRequested(this, reason, System.nanoTime());
 		}
 
-		if (!animate) {
+		if (mIsReplacePending) {
+			dispatchEvent(SnackbarEventType.DISMISS_BY_REPLACE);
+		} else {
+			dispatchEvent(SnackbarEventType.DISMISS);
+		}
+
+		if (!animate || SnackbarManager.isInstantAnimations()) {
 			finish();
 			return;
 		}
 
-		final Animation slideOut = AnimationUtils.loadAnimation(getContext(), mPosition == TOP ? R.anim.snackbar_top_out : R.anim.snackbar_bottom_out);
-		slideOut.setAnimationListener(new Animation.AnimationListener() {
-			@Override
-			public void onAnimationStart ( Animation animation ) {
-			}
-
-			@Override
-			public void onAnimationEnd ( Animation animation ) {
-				post(new Runnable() {
-					@Override
-					public void run () {
-						finish();
-					}
-				});
-			}
+		startAnimation(getSlideOutAnimation(), mSlideOutListener);
+	}
 
-			@Override
-			public void onAnimationRepeat ( Animation animation ) {
-			}
-		});
-		startAnimation(slideOut);
+	/**
+	 * Removes this {@link Snackbar} right away, without animating it out. Used when the
+	 * {@link android.app.Activity} hosting it is being destroyed.
+	 */
+	void dismissByHostDestroyed () {
+		stopTimer();
+		if (mState.get() == SnackbarState.EXITING) {
+			// already animating out, don't wait for the animation to end
+			finish();
+			return;
+		}
+		dismiss(DismissReason.HOST_DESTROYED, false);
 	}
 
 	private void finish () {
+		boolean wasShowing = mState.moveTo(SnackbarState.FINISHED);
+		removeFromParent();
+		SnackbarMetrics metrics = metrics();
+		if (metrics != null && wasShowing) {
+			metrics.onFinished(this, mDismissReason, System.nanoTime());
+		}
+		if (wasShowing) {
+			DismissReason reason = mDismissReason != null ? mDismissReason : DismissReason.PROGRAMMATIC;
+			mResult.set(reason);
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+				dispatchOffset(0, 0);
+			}
+			dispatchEvent(SnackbarEventType.DISMISSED);
+			settleUndoBindings(mActionClicked || reason == DismissReason.ACTION);
+			if (mResultListener != null) {
+				mResultListener.onResult(this, reason);
+			}
+			SnackbarTrace.endAsyncSection(ON_SCREEN_SECTION, System.identityHashCode(this));
+		}
+		mDismissReason = null;
+		mIsReplacePending = false;
+		mIsRestored = false;
+		mTimerPausedBy = 0;
+		mTargetActivity = null;
+		SnackbarManager.onSnackbarFinished(this);
+	}
+
+	private void removeFromParent () {
+		mIsTimerArmed = false;
+		stopTimer();
+		removeCallbacks(mStartTimerRunnable);
+		removeCallbacks(mFinishRunnable);
+		getViewTreeObserver().removeOnPreDrawListener(mShowPreDrawListener);
+		getViewTreeObserver().removeOnPreDrawListener(mOffsetPreDrawListener);
+		if (mScrollAttachment != null) {
+			mScrollAttachment.detach();
+		}
+		if (mSwipeDismissTouchListener != null) {
+			mSwipeDismissTouchListener.cancelAnimation();
+		}
+		Animation animation = getAnimation();
+		if (animation != null) {
+			// don't let a cancelled animation run its end callbacks on a removed view
+			animation.setAnimationListener(null);
+		}
 		clearAnimation();
 		ViewGroup parent = (ViewGroup) getParent();
 		if (parent != null) {
 			parent.removeView(this);
 		}
-		if (mEventListener != null && mIsShowing) {
-			mEventListener.onDismissed(this);
+	}
+
+	/**
+	 * Captures the values needed to display this {@link Snackbar} again after its
+	 * {@link Activity} is recreated, and removes it without notifying its listeners.
+	 *
+	 * @return the state to pass to {@link #restore(Context, SavedState)}
+	 */
+	SavedState saveStateAndRemove () {
+		stopTimer();
+		SavedState state = new SavedState(this);
+		removeFromParent();
+		if (mState.moveTo(SnackbarState.FINISHED)) {
+			SnackbarTrace.endAsyncSection(ON_SCREEN_SECTION, System.identityHashCode(this));
 		}
-		mIsShowing = false;
-		mIsReplacePending = false;
+		// The buffer isn't carried over with the listeners
+		settleUndoBindings(false);
 		mTargetActivity = null;
+		return state;
+	}
+
+	/**
+	 * Called once the state leaves IDLE, QUEUED or FINISHED for a new show. Everything a previous
+	 * show may have left behind is reset here, so the fields can't disagree with the state
+	 */
+	private void beginShow () {
+		SnackbarTrace.beginAsyncSection(ON_SCREEN_SECTION, System.identityHashCode(this));
+		mResult.reset();
+		mDismissReason = null;
+		mIsReplacePending = false;
+		mTimerStart = -1;
+		mTimerPausedBy = 0;
+		if (!mIsRestored) {
+			// A restored Snackbar continues where the old one stopped
+			mTimeRemaining = -1;
+			mActionClicked = false;
+		}
+		holdUndoOperations();
+	}
+
+	/**
+	 * Makes the operations tied to this show pending in their buffers
+	 */
+	void holdUndoOperations () {
+		for (int i = 0; i < mUndoBindings.size(); i++) {
+			mUndoBindings.get(i).onShown();
+		}
+	}
+
+	/**
+	 * Settles the operations tied to this show, which are then no longer tied to this Snackbar
+	 */
+	private void settleUndoBindings ( boolean undone ) {
+		if (mUndoBindings.isEmpty()) {
+			return;
+		}
+		List<UndoBuffer.Binding<?>> bindings = new ArrayList<UndoBuffer.Binding<?>>(mUndoBindings);
+		mUndoBindings.clear();
+		for (int i = 0; i < bindings.size(); i++) {
+			bindings.get(i).settle(undone);
+		}
+	}
+
+	/**
+	 * @return true if this {@link Snackbar} can be restored in a recreated {@link Activity}
+	 */
+	boolean canRestoreState () {
+		SnackbarState state = mState.get();
+		return state != SnackbarState.EXITING && SnackbarStateMachine.isShowing(state)
+				&& getTargetActivity() != null;
+	}
+
+	static Snackbar restore ( Context context, SavedState state ) {
+		Snackbar snackbar = new Snackbar(context);
+		state.applyTo(snackbar);
+		return snackbar;
 	}
 
 	@Override
 	protected void onDetachedFromWindow() {
 		super.onDetachedFromWindow();
-		if (mDismissRunnable != null) {
-			removeCallbacks(mDismissRunnable);
-        }
+		stopTimer();
         if (mRefreshLayoutParamsMarginsRunnable != null) {
 	        removeCallbacks(mRefreshLayoutParamsMarginsRunnable);
         }
@@ -940,7 +1720,7 @@ public class Snackbar extends SnackbarLayout {
 	}
 
 	protected void refreshLayoutParamsMargins () {
-		if (mIsDismissing) {
+		if (mState.get() == SnackbarState.EXITING) {
 			return;
 		}
 
@@ -951,11 +1731,30 @@ public class Snackbar extends SnackbarLayout {
 
 		MarginLayoutParams params = (MarginLayoutParams) getLayoutParams();
 
-		updateLayoutParamsMargins(mTargetActivity, params);
+		updateLayoutParamsMargins(getTargetActivity(), params);
 
 		setLayoutParams(params);
 	}
 
+	private Activity getTargetActivity () {
+		return mTargetActivity != null ? mTargetActivity.get() : null;
+	}
+
+	/**
+	 * @return true if this {@link Snackbar} is displayed in the given {@link Activity}, either
+	 * because it was shown with it or because its parent or {@link Context} belong to it
+	 */
+	boolean isHostedBy ( Activity activity ) {
+		if (activity == null) {
+			return false;
+		}
+		if (activity == getTargetActivity() || activity == getContext()) {
+			return true;
+		}
+		ViewParent parent = getParent();
+		return parent instanceof View && ((View) parent).getContext() == activity;
+	}
+
 	protected void updateLayoutParamsMargins ( Activity targetActivity, MarginLayoutParams params ) {
 		if (mUsePhoneLayout) {
 			// Phone
@@ -1037,21 +1836,165 @@ public class Snackbar extends SnackbarLayout {
 	 * @return true if this {@link com.nispok.snackbar.Snackbar} is currently showing
 	 */
 	public boolean isShowing () {
-	    return mIsShowing;
+	    return mState.isShowing();
     }
 
 	/**
 	 * @return true if this {@link com.nispok.snackbar.Snackbar} is dismissing.
 	 */
 	public boolean isDimissing () {
-		return mIsDismissing;
+		return mState.get() == SnackbarState.EXITING;
 	}
 
 	/**
 	 * @return false if this {@link com.nispok.snackbar.Snackbar} has been dismissed
 	 */
 	public boolean isDismissed () {
-		return !mIsShowing;
+		return !mState.isShowing();
+	}
+
+	/**
+	 * @return where this {@link com.nispok.snackbar.Snackbar} is in its lifecycle
+	 */
+	public SnackbarState getState () {
+		return mState.get();
+	}
+
+	void onQueued () {
+		if (mState.moveTo(SnackbarState.QUEUED)) {
+			mResult.reset();
+		}
+	}
+
+	/**
+	 * Called when this {@link Snackbar} is dropped before it was shown. Still the one outcome of
+	 * the show it was queued for
+	 */
+	void onDequeued ( DismissReason reason ) {
+		if (!mState.moveFrom(SnackbarState.QUEUED, SnackbarState.IDLE)) {
+			return;
+		}
+		mResult.set(reason);
+		settleUndoBindings(false);
+		if (mResultListener != null) {
+			mResultListener.onResult(this, reason);
+		}
+	}
+
+	/**
+	 * The values needed to display a {@link Snackbar} again in a new {@link Context}. Listeners
+	 * aren't kept, as they usually reference the old Activity, and have to be set again through a
+	 * {@link RestoreListener}
+	 */
+	static class SavedState {
+		private final int position;
+		private final int color;
+		private final int textColor;
+		private final int actionColor;
+		private final SnackbarType type;
+		private final SnackbarDuration duration;
+		private final long customDuration;
+		private final long timeRemaining;
+		private final CharSequence text;
+		private final int drawable;
+		private final int marginTop;
+		private final int marginBottom;
+		private final int marginLeft;
+		private final int marginRight;
+		private final CharSequence actionLabel;
+		private final boolean animated;
+		private final boolean shouldAllowMultipleActionClicks;
+		private final boolean actionClicked;
+		private final boolean shouldDismissOnActionClicked;
+		private final int snackbarId;
+		private final Typeface textTypeface;
+		private final Typeface actionTypeface;
+		private final boolean canSwipeToDismiss;
+		private final int scrollDismissDistance;
+		private final SnackbarPriority priority;
+		private final SnackbarResult result;
+
+		private SavedState ( Snackbar snackbar ) {
+			position = snackbar.mPosition;
+			color = snackbar.mColor;
+			textColor = snackbar.mTextColor;
+			actionColor = snackbar.mActionColor;
+			type = snackbar.mType;
+			duration = snackbar.mDuration;
+			customDuration = snackbar.mCustomDuration;
+			timeRemaining = snackbar.getTimeRemaining();
+			text = snackbar.mText;
+			drawable = snackbar.mDrawable;
+			marginTop = snackbar.mMarginTop;
+			marginBottom = snackbar.mMarginBottom;
+			marginLeft = snackbar.mMarginLeft;
+			marginRight = snackbar.mMarginRight;
+			actionLabel = snackbar.mActionLabel;
+			animated = snackbar.mAnimated;
+			shouldAllowMultipleActionClicks = snackbar.mShouldAllowMultipleActionClicks;
+			actionClicked = snackbar.mActionClicked;
+			shouldDismissOnActionClicked = snackbar.mShouldDismissOnActionClicked;
+			snackbarId = snackbar.mSnackbarId;
+			textTypeface = snackbar.mTextTypeface;
+			actionTypeface = snackbar.mActionTypeface;
+			canSwipeToDismiss = snackbar.mCanSwipeToDismiss;
+			scrollDismissDistance = snackbar.mScrollDismissDistance;
+			priority = snackbar.mPriority;
+			result = snackbar.mResult;
+		}
+
+		private void applyTo ( Snackbar snackbar ) {
+			snackbar.mPosition = position;
+			snackbar.mColor = color;
+			snackbar.mTextColor = textColor;
+			snackbar.mActionColor = actionColor;
+			snackbar.mType = type;
+			snackbar.mDuration = duration;
+			snackbar.mCustomDuration = customDuration;
+			snackbar.mTimeRemaining = timeRemaining;
+			snackbar.mText = text;
+			snackbar.mDrawable = drawable;
+			snackbar.mMarginTop = marginTop;
+			snackbar.mMarginBottom = marginBottom;
+			snackbar.mMarginLeft = marginLeft;
+			snackbar.mMarginRight = marginRight;
+			snackbar.mActionLabel = actionLabel;
+			snackbar.mAnimated = animated;
+			snackbar.mShouldAllowMultipleActionClicks = shouldAllowMultipleActionClicks;
+			snackbar.mActionClicked = actionClicked;
+			snackbar.mShouldDismissOnActionClicked = shouldDismissOnActionClicked;
+			snackbar.mSnackbarId = snackbarId;
+			snackbar.mTextTypeface = textTypeface;
+			snackbar.mActionTypeface = actionTypeface;
+			snackbar.mCanSwipeToDismiss = canSwipeToDismiss;
+			snackbar.mScrollDismissDistance = scrollDismissDistance;
+			snackbar.mPriority = priority;
+			// The restored Snackbar completes the result the app may be holding. It holds no
+			// reference to anything but its reason
+			snackbar.mResult = result;
+		}
+
+		/**
+		 * Completes the result of the Snackbar this state was saved from, which won't be restored
+		 */
+		void discard ( DismissReason reason ) {
+			result.set(reason);
+		}
+	}
+
+	private static class AsyncEventDelivery implements Runnable {
+		private final AsyncEventListener mListener;
+		private final SnackbarEvent mEvent;
+
+		AsyncEventDelivery ( AsyncEventListener listener, SnackbarEvent event ) {
+			mListener = listener;
+			mEvent = event;
+		}
+
+		@Override
+		public void run () {
+			mListener.onEvent(mEvent);
+		}
 	}
 
 	public enum SnackbarDuration {
@@ -0,0 +1,38 @@
+package com.nispok.snackbar;
+
+import android.os.SystemClock;
+
+/**
+ * Source of time for {@link Snackbar} timeouts. Replace it with
+ * {@link SnackbarManager#setClock(SnackbarClock)}, e.g. with a {@link ManualSnackbarClock} to
+ * control time from tests.
+ */
+public interface SnackbarClock {
+
+    /**
+     * The default clock, backed by {@link SystemClock#uptimeMillis()}
+     */
+    SnackbarClock SYSTEM = new SnackbarClock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+
+        @Override
+        public boolean isRealTime() {
+            return true;
+        }
+    };
+
+    /**
+     * @return monotonic time in milliseconds, like {@link SystemClock#uptimeMillis()}
+     */
+    long uptimeMillis();
+
+    /**
+     * @return true if this clock moves on its own, so timeouts are posted to the main thread to
+     * expire in real time. A clock that only moves when told to returns false, and expires the due
+     * timeouts itself through {@link SnackbarManager}
+     */
+    boolean isRealTime();
+}
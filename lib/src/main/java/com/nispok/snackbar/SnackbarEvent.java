@@ -0,0 +1,68 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.enums.DismissReason;
+import com.nispok.snackbar.enums.SnackbarEventType;
+
+/**
+ * Immutable record of something that happened to a {@link Snackbar}, delivered to
+ * {@link com.nispok.snackbar.listeners.AsyncEventListener}s. It copies what it needs from the
+ * Snackbar when it's created, so it can be read from any thread.
+ */
+public final class SnackbarEvent {
+
+    private final SnackbarEventType mType;
+    private final int mSnackbarId;
+    private final String mText;
+    private final DismissReason mDismissReason;
+    private final long mTimeMillis;
+
+    SnackbarEvent(SnackbarEventType type, int snackbarId, CharSequence text,
+                  DismissReason dismissReason, long timeMillis) {
+        mType = type;
+        mSnackbarId = snackbarId;
+        mText = text != null ? text.toString() : null;
+        mDismissReason = dismissReason;
+        mTimeMillis = timeMillis;
+    }
+
+    public SnackbarEventType getType() {
+        return mType;
+    }
+
+    /**
+     * @return an id telling Snackbars apart, which stays the same when a Snackbar is shown again
+     * after its {@link android.app.Activity} is recreated
+     */
+    public int getSnackbarId() {
+        return mSnackbarId;
+    }
+
+    /**
+     * @return the text the Snackbar was showing
+     */
+    public String getText() {
+        return mText;
+    }
+
+    /**
+     * @return why the Snackbar was dismissed, for {@link SnackbarEventType#DISMISS},
+     * {@link SnackbarEventType#DISMISS_BY_REPLACE} and {@link SnackbarEventType#DISMISSED}
+     * events, null otherwise
+     */
+    public DismissReason getDismissReason() {
+        return mDismissReason;
+    }
+
+    /**
+     * @return when the event happened, in {@link SnackbarClock#uptimeMillis()} time
+     */
+    public long getTimeMillis() {
+        return mTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SnackbarEvent{" + mType + ", snackbar " + mSnackbarId
+                + (mDismissReason != null ? ", " + mDismissReason : "") + "}";
+    }
+}
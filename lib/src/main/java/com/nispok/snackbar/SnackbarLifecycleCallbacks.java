@@ -0,0 +1,49 @@
+package com.nispok.snackbar;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.app.Application;
+import android.os.Build;
+import android.os.Bundle;
+
+/**
+ * Forwards the {@link Activity} lifecycle events {@link SnackbarManager} cares about, so that it
+ * never keeps a {@link Snackbar} around once the screen displaying it is gone, and can bring it
+ * back when that screen is recreated after a configuration change. Snackbar timers are paused
+ * while the screen is in the background.
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+class SnackbarLifecycleCallbacks implements Application.ActivityLifecycleCallbacks {
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        SnackbarManager.onActivityStarted(activity);
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        SnackbarManager.onActivityResumed(activity);
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        SnackbarManager.onActivityPaused(activity);
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        SnackbarManager.onActivityDestroyed(activity);
+    }
+}
@@ -1,10 +1,28 @@
 package com.nispok.snackbar;
 
 import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Build;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.util.Log;
+import android.view.View;
 import android.view.ViewGroup;
 
+import com.nispok.snackbar.enums.DismissReason;
+import com.nispok.snackbar.enums.SnackbarEventType;
+import com.nispok.snackbar.enums.SnackbarPriority;
+import com.nispok.snackbar.listeners.AsyncEventListener;
+import com.nispok.snackbar.listeners.EventListener;
+import com.nispok.snackbar.listeners.ListenerBudgetCallback;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 /**
  * A handler for multiple {@link Snackbar}s
  */
@@ -12,7 +30,60 @@ public class SnackbarManager {
 
     private static final String TAG = SnackbarManager.class.getSimpleName();
 
-    private static Snackbar currentSnackbar;
+    private static WeakReference<Snackbar> currentSnackbar;
+
+    private static SnackbarTimer timer;
+
+    private static SnackbarClock clock = SnackbarClock.SYSTEM;
+
+    private static boolean instantAnimations;
+
+    private static SnackbarMetrics metrics = SnackbarMetrics.NONE;
+
+    private static long listenerBudgetNanos;
+
+    private static ListenerBudgetCallback listenerBudgetCallback;
+
+    private static boolean strictListenerBudget;
+
+    private static final EventListenerList eventListeners = new EventListenerList();
+
+    private static AsyncEventListener asyncEventListener;
+
+    private static Executor asyncEventExecutor;
+
+    private static final AnchorViews anchorViews = new AnchorViews();
+
+    private static final SnackbarStack stack = new SnackbarStack();
+
+    private static final long DEFAULT_IDLE_MAX_DELAY = 1000;
+
+    private static long idleMaxDelay = DEFAULT_IDLE_MAX_DELAY;
+
+    private static final List<IdleShow> idleShows = new ArrayList<IdleShow>();
+
+    private static boolean lifecycleCallbacksRegistered;
+
+    private static final List<WeakReference<Activity>> pausedActivities =
+            new ArrayList<WeakReference<Activity>>();
+
+    private static Snackbar.SavedState pendingRestoreState;
+
+    private static Class<? extends Activity> pendingRestoreActivityClass;
+
+    private static int pendingRestoreTaskId;
+
+    /**
+     * How long a saved Snackbar waits for its Activity to be recreated before it's given up
+     */
+    private static final long PENDING_RESTORE_TIMEOUT = 5000;
+
+    private static final SnackbarTimer.Entry pendingRestoreExpiry = new SnackbarTimer.Entry() {
+        @Override
+        void onExpired() {
+            discardPendingRestore(DismissReason.HOST_DESTROYED);
+        }
+    };
 
     private SnackbarManager() {
     }
@@ -43,17 +114,42 @@ public class SnackbarManager {
      * @param activity target {@link Activity} to display the Snackbar
      */
     public static void show(@NonNull Snackbar snackbar, @NonNull Activity activity) {
-        if (currentSnackbar != null) {
-            if(currentSnackbar.isShowing() && !currentSnackbar.isDimissing()) {
-                currentSnackbar.dismissByReplace();
-                currentSnackbar = snackbar;
-                currentSnackbar.showByReplace(activity);
+        registerLifecycleCallbacks(activity);
+        discardPendingRestore(DismissReason.REPLACE);
+        if (snackbar.getPriority() == SnackbarPriority.IDLE) {
+            deferUntilIdle(new IdleShow(snackbar, activity));
+            return;
+        }
+        cancelIdleShows();
+        showNow(snackbar, activity);
+    }
+
+    static void showNow(Snackbar snackbar, Activity activity) {
+        SnackbarTrace.beginSection("SnackbarManager#show");
+        try {
+            if (stack.isEnabled()) {
+                stack.show(snackbar, activity,
+                        (ViewGroup) activity.findViewById(android.R.id.content), false);
                 return;
             }
-            currentSnackbar.dismiss();
+            // Held before the replaced Snackbar settles its own, so both go in one batch
+            snackbar.holdUndoOperations();
+            Snackbar current = getCurrentSnackbar();
+            setCurrentSnackbar(snackbar);
+            if (current != null) {
+                if(current.isShowing() && !current.isDimissing()) {
+                    current.dismissByReplace();
+                    snackbar.showByReplace(activity);
+                    pauseIfHostPaused(snackbar);
+                    return;
+                }
+                current.dismiss();
+            }
+            snackbar.show(activity);
+            pauseIfHostPaused(snackbar);
+        } finally {
+            SnackbarTrace.endSection();
         }
-        currentSnackbar = snackbar;
-        currentSnackbar.show(activity);
     }
 
     /**
@@ -76,32 +172,455 @@ public class SnackbarManager {
      * @param usePhoneLayout true: use phone layout, false: use tablet layout
      */
     public static void show(@NonNull Snackbar snackbar, @NonNull ViewGroup parent, boolean usePhoneLayout) {
-        if (currentSnackbar != null) {
-            if(currentSnackbar.isShowing() && !currentSnackbar.isDimissing()) {
-                currentSnackbar.dismissByReplace();
-                currentSnackbar = snackbar;
-                currentSnackbar.showByReplace(parent, usePhoneLayout);
+        registerLifecycleCallbacks(parent.getContext());
+        discardPendingRestore(DismissReason.REPLACE);
+        if (snackbar.getPriority() == SnackbarPriority.IDLE) {
+            deferUntilIdle(new IdleShow(snackbar, parent, usePhoneLayout));
+            return;
+        }
+        cancelIdleShows();
+        showNow(snackbar, parent, usePhoneLayout);
+    }
+
+    static void showNow(Snackbar snackbar, ViewGroup parent, boolean usePhoneLayout) {
+        SnackbarTrace.beginSection("SnackbarManager#show");
+        try {
+            if (stack.isEnabled()) {
+                stack.show(snackbar, null, parent, usePhoneLayout);
                 return;
             }
-            currentSnackbar.dismiss();
+            // Held before the replaced Snackbar settles its own, so both go in one batch
+            snackbar.holdUndoOperations();
+            Snackbar current = getCurrentSnackbar();
+            setCurrentSnackbar(snackbar);
+            if (current != null) {
+                if(current.isShowing() && !current.isDimissing()) {
+                    current.dismissByReplace();
+                    snackbar.showByReplace(parent, usePhoneLayout);
+                    pauseIfHostPaused(snackbar);
+                    return;
+                }
+                current.dismiss();
+            }
+            snackbar.show(parent, usePhoneLayout);
+            pauseIfHostPaused(snackbar);
+        } finally {
+            SnackbarTrace.endSection();
         }
-        currentSnackbar = snackbar;
-        currentSnackbar.show(parent, usePhoneLayout);
     }
 
     /**
      * Dismisses the {@link com.nispok.snackbar.Snackbar} shown by this manager.
      */
     public static void dismiss() {
-        if (currentSnackbar != null) {
-            currentSnackbar.dismiss();
+        Snackbar current = getCurrentSnackbar();
+        if (current != null) {
+            current.dismiss();
         }
     }
     
     /**
-     * Return the current Snackbar
+     * Return the current Snackbar. The manager only keeps a weak reference to it, so this will
+     * return null once the Snackbar and the screen displaying it have been garbage collected
      */
      public static Snackbar getCurrentSnackbar() {
-         return currentSnackbar;
+         return currentSnackbar != null ? currentSnackbar.get() : null;
      }
+
+    private static void setCurrentSnackbar(Snackbar snackbar) {
+        if (getCurrentSnackbar() != snackbar) {
+            currentSnackbar = new WeakReference<Snackbar>(snackbar);
+        }
+    }
+
+    /**
+     * Shows up to {@code maxVisible} Snackbars at once, stacked from the edge of the screen with
+     * the newest closest to it, instead of replacing the current one. Snackbars shown while the
+     * stack is full wait for a place, counted by a "+N more" entry. Stacking needs Honeycomb MR1
+     * or later, and is meant for the tablet layout
+     *
+     * @param maxVisible the number of Snackbars to show at once, 1 (the default) to replace the
+     *                   current Snackbar
+     */
+    public static void setMaxStackedSnackbars(int maxVisible) {
+        stack.setMaxVisible(maxVisible);
+    }
+
+    /**
+     * Sets how long a Snackbar of {@link SnackbarPriority#IDLE} priority waits for the main thread
+     * to be idle before it's shown anyway
+     *
+     * @param maxDelayMillis the maximum delay, 1 second by default
+     */
+    public static void setIdleMaxDelay(long maxDelayMillis) {
+        idleMaxDelay = maxDelayMillis;
+    }
+
+    private static void deferUntilIdle(IdleShow idleShow) {
+        idleShows.add(idleShow);
+        idleShow.schedule(idleMaxDelay);
+    }
+
+    static void onIdleShowDue(IdleShow idleShow) {
+        if (idleShows.remove(idleShow)) {
+            idleShow.show();
+        }
+    }
+
+    /**
+     * Snackbars shown right away win over the ones still waiting for the main thread to be idle,
+     * which would only replace them. Stacked Snackbars don't replace each other, so they all wait
+     */
+    private static void cancelIdleShows() {
+        if (stack.isEnabled()) {
+            return;
+        }
+        for (int i = idleShows.size() - 1; i >= 0; i--) {
+            idleShows.remove(i).cancel(DismissReason.REPLACE);
+        }
+    }
+
+    static int getStackedPendingCount() {
+        return stack.getPendingCount();
+    }
+
+    static void onShownFromStack(Snackbar snackbar) {
+        setCurrentSnackbar(snackbar);
+        pauseIfHostPaused(snackbar);
+    }
+
+    static void onSnackbarLaidOut(Snackbar snackbar) {
+        stack.onSnackbarLaidOut(snackbar);
+    }
+
+    static void onSnackbarFinished(Snackbar snackbar) {
+        stack.onSnackbarFinished(snackbar);
+    }
+
+    /**
+     * Sets the {@link SnackbarClock} used to time Snackbars. Tests can install a
+     * {@link ManualSnackbarClock} to control time by hand. Call this before showing any Snackbar
+     *
+     * @param snackbarClock the clock to use, or null to go back to {@link SnackbarClock#SYSTEM}
+     */
+    public static void setClock(SnackbarClock snackbarClock) {
+        clock = snackbarClock != null ? snackbarClock : SnackbarClock.SYSTEM;
+        getTimer().setClock(clock);
+    }
+
+    static SnackbarClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Makes Snackbar animations complete synchronously: Snackbars are fully shown as soon as
+     * they're added to their parent and gone as soon as they're dismissed, without waiting for a
+     * frame to be drawn. Meant for tests
+     *
+     * @param instant true to skip all enter and exit animations
+     */
+    public static void setInstantAnimations(boolean instant) {
+        instantAnimations = instant;
+    }
+
+    static boolean isInstantAnimations() {
+        return instantAnimations;
+    }
+
+    /**
+     * Installs a {@link SnackbarMetrics} to receive the timings of every Snackbar shown
+     *
+     * @param snackbarMetrics the metrics to report to, or null to go back to
+     *                        {@link SnackbarMetrics#NONE}
+     */
+    public static void setMetrics(SnackbarMetrics snackbarMetrics) {
+        metrics = snackbarMetrics != null ? snackbarMetrics : SnackbarMetrics.NONE;
+    }
+
+    static SnackbarMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds a listener called for the events of every Snackbar, after the Snackbar's own listeners
+     *
+     * @param listener the listener to add
+     */
+    public static void addEventListener(@NonNull EventListener listener) {
+        eventListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addEventListener(EventListener)}
+     *
+     * @param listener the listener to remove
+     */
+    public static void removeEventListener(EventListener listener) {
+        eventListeners.remove(listener);
+    }
+
+    static EventListener[] getEventListeners() {
+        return eventListeners.getArray();
+    }
+
+    /**
+     * Registers a view, such as a floating action button, to be moved out of the way of the
+     * Snackbars shown in its window as they enter, leave or are swiped. The view is held weakly
+     * and its translationY is owned by the manager until it's removed. Needs API 11, does nothing
+     * on older versions
+     *
+     * @param view the view to move
+     */
+    public static void addAnchorView(@NonNull View view) {
+        anchorViews.add(view);
+    }
+
+    /**
+     * Stops moving a view added with {@link #addAnchorView(View)}, putting it back in place
+     *
+     * @param view the view to remove
+     */
+    public static void removeAnchorView(View view) {
+        anchorViews.remove(view);
+    }
+
+    static boolean hasAnchorViews() {
+        return !anchorViews.isEmpty();
+    }
+
+    static void displaceAnchorViews(Snackbar snackbar, float translationY) {
+        anchorViews.update(snackbar, translationY);
+    }
+
+    /**
+     * Delivers the events of every Snackbar to {@code listener} on {@code executor}, as
+     * {@link SnackbarEvent}s, in addition to each Snackbar's own listeners. See
+     * {@link Snackbar#asyncEventListener(Executor, AsyncEventListener)} for a single Snackbar
+     *
+     * @param executor the executor to run {@code listener} on
+     * @param listener the listener, or null to stop delivering events
+     */
+    public static void setAsyncEventListener(Executor executor, AsyncEventListener listener) {
+        if (listener != null && executor == null) {
+            throw new IllegalArgumentException("An Executor is required to deliver events asynchronously");
+        }
+        asyncEventExecutor = executor;
+        asyncEventListener = listener;
+    }
+
+    static AsyncEventListener getAsyncEventListener() {
+        return asyncEventListener;
+    }
+
+    static Executor getAsyncEventExecutor() {
+        return asyncEventExecutor;
+    }
+
+    /**
+     * Times every {@link com.nispok.snackbar.listeners.EventListener} and
+     * {@link com.nispok.snackbar.listeners.ActionClickListener} callback. The ones taking longer
+     * than {@code budgetMillis} are reported to {@code callback}, e.g. to find the listeners that
+     * drop frames while a Snackbar animates
+     *
+     * @param budgetMillis the time a callback may take, 0 to stop timing callbacks
+     * @param callback     told about the callbacks over budget, may be null when only using
+     *                     {@link #setStrictListenerBudget(boolean)}
+     */
+    public static void setListenerBudget(long budgetMillis, ListenerBudgetCallback callback) {
+        listenerBudgetNanos = Math.max(0, budgetMillis) * 1000000;
+        listenerBudgetCallback = callback;
+    }
+
+    /**
+     * Makes a listener callback over the budget set with
+     * {@link #setListenerBudget(long, ListenerBudgetCallback)} throw an
+     * {@link IllegalStateException}, in debuggable apps only. Release builds keep reporting to
+     * the callback
+     *
+     * @param strict true to throw on callbacks over budget
+     */
+    public static void setStrictListenerBudget(boolean strict) {
+        strictListenerBudget = strict;
+    }
+
+    static long getListenerBudgetNanos() {
+        return listenerBudgetNanos;
+    }
+
+    static void onListenerOverBudget(Snackbar snackbar, SnackbarEventType event,
+                                     long durationNanos) {
+        if (listenerBudgetCallback != null) {
+            listenerBudgetCallback.onListenerOverBudget(snackbar, event, durationNanos);
+        }
+        if (strictListenerBudget && isDebuggable(snackbar.getContext())) {
+            throw new IllegalStateException("Snackbar " + event + " listener took "
+                    + durationNanos / 1000000 + "ms, over the "
+                    + listenerBudgetNanos / 1000000 + "ms budget");
+        }
+    }
+
+    private static boolean isDebuggable(Context context) {
+        return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    /**
+     * Adds {@link android.os.Trace} sections around the work Snackbars do, and an async slice for
+     * the time each one is on screen, to find them in system traces. Off by default, only has an
+     * effect on API 18+
+     *
+     * @param enabled true to emit trace sections
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        SnackbarTrace.setEnabled(enabled);
+    }
+
+    static void onClockAdvanced(SnackbarClock advancedClock) {
+        if (clock == advancedClock) {
+            getTimer().expireDue();
+        }
+    }
+
+    /**
+     * @return the {@link SnackbarTimer} shared by all Snackbars
+     */
+    static SnackbarTimer getTimer() {
+        if (timer == null) {
+            timer = new SnackbarTimer(Looper.getMainLooper(), clock);
+        }
+        return timer;
+    }
+
+    /**
+     * Registers the {@link Application.ActivityLifecycleCallbacks} used to drop the current
+     * {@link Snackbar} when its {@link Activity} is destroyed. Only available on API 14+
+     */
+    static void registerLifecycleCallbacks(Context context) {
+        if (lifecycleCallbacksRegistered
+                || Build.VERSION.SDK_INT < Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            return;
+        }
+
+        Context applicationContext = context.getApplicationContext();
+        if (applicationContext instanceof Application) {
+            ((Application) applicationContext).registerActivityLifecycleCallbacks(
+                    new SnackbarLifecycleCallbacks());
+            lifecycleCallbacksRegistered = true;
+        }
+    }
+
+    /**
+     * Snackbars shown while their Activity is in the background must wait for it to come back
+     * before their timer starts, or they would be dismissed without ever being seen
+     */
+    private static void pauseIfHostPaused(Snackbar snackbar) {
+        for (int i = pausedActivities.size() - 1; i >= 0; i--) {
+            if (snackbar.isHostedBy(pausedActivities.get(i).get())) {
+                snackbar.pauseTimer(Snackbar.TIMER_PAUSED_BY_HOST);
+                return;
+            }
+        }
+    }
+
+    private static void removePausedActivity(Activity activity) {
+        for (int i = pausedActivities.size() - 1; i >= 0; i--) {
+            Activity paused = pausedActivities.get(i).get();
+            if (paused == null || paused == activity) {
+                pausedActivities.remove(i);
+            }
+        }
+    }
+
+    static void onActivityResumed(Activity activity) {
+        removePausedActivity(activity);
+        Snackbar current = getCurrentSnackbar();
+        if (current != null && current.isHostedBy(activity)) {
+            current.resumeTimer(Snackbar.TIMER_PAUSED_BY_HOST);
+        }
+        List<Snackbar> stacked = stack.getShowing();
+        for (int i = 0; i < stacked.size(); i++) {
+            if (stacked.get(i).isHostedBy(activity)) {
+                stacked.get(i).resumeTimer(Snackbar.TIMER_PAUSED_BY_HOST);
+            }
+        }
+    }
+
+    static void onActivityPaused(Activity activity) {
+        removePausedActivity(activity);
+        pausedActivities.add(new WeakReference<Activity>(activity));
+        Snackbar current = getCurrentSnackbar();
+        if (current != null && current.isHostedBy(activity)) {
+            current.pauseTimer(Snackbar.TIMER_PAUSED_BY_HOST);
+        }
+        List<Snackbar> stacked = stack.getShowing();
+        for (int i = 0; i < stacked.size(); i++) {
+            if (stacked.get(i).isHostedBy(activity)) {
+                stacked.get(i).pauseTimer(Snackbar.TIMER_PAUSED_BY_HOST);
+            }
+        }
+    }
+
+    static void onActivityStarted(Activity activity) {
+        Snackbar.SavedState state = pendingRestoreState;
+        // Other Activities may start before the recreated one, e.g. a dialog-themed Activity on
+        // top of it; the restore waits for its own Activity or expires
+        if (state == null || activity.getClass() != pendingRestoreActivityClass
+                || activity.getTaskId() != pendingRestoreTaskId) {
+            return;
+        }
+        clearPendingRestore();
+
+        Snackbar snackbar = Snackbar.restore(activity, state);
+        setCurrentSnackbar(snackbar);
+        snackbar.showRestored(activity);
+    }
+
+    static void onActivityDestroyed(Activity activity) {
+        removePausedActivity(activity);
+        SnackbarPrewarmer.onActivityDestroyed(activity);
+        for (int i = idleShows.size() - 1; i >= 0; i--) {
+            if (idleShows.get(i).isHostedBy(activity)) {
+                idleShows.remove(i).cancel(DismissReason.HOST_DESTROYED);
+            }
+        }
+        // Only the newest stacked Snackbar is kept across a configuration change
+        stack.removePending(activity);
+        Snackbar current = getCurrentSnackbar();
+        List<Snackbar> stacked = stack.getShowing();
+        for (int i = 0; i < stacked.size(); i++) {
+            if (stacked.get(i) != current && stacked.get(i).isHostedBy(activity)) {
+                stacked.get(i).dismissByHostDestroyed();
+            }
+        }
+        if (current != null && current.isHostedBy(activity)) {
+            if (activity.isChangingConfigurations() && current.canRestoreState()) {
+                // Shown again in the recreated Activity once it starts, see #onActivityStarted()
+                pendingRestoreState = current.saveStateAndRemove();
+                pendingRestoreActivityClass = activity.getClass();
+                pendingRestoreTaskId = activity.getTaskId();
+                getTimer().schedule(pendingRestoreExpiry,
+                        getClock().uptimeMillis() + PENDING_RESTORE_TIMEOUT);
+            } else {
+                current.dismissByHostDestroyed();
+            }
+            currentSnackbar = null;
+        }
+    }
+
+    /**
+     * Gives up on the pending restore, completing the result of the Snackbar it was saved from
+     */
+    private static void discardPendingRestore(DismissReason reason) {
+        Snackbar.SavedState state = pendingRestoreState;
+        clearPendingRestore();
+        if (state != null) {
+            state.discard(reason);
+        }
+    }
+
+    private static void clearPendingRestore() {
+        pendingRestoreState = null;
+        pendingRestoreActivityClass = null;
+        pendingRestoreTaskId = 0;
+        getTimer().cancel(pendingRestoreExpiry);
+    }
 }
@@ -0,0 +1,84 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.enums.DismissReason;
+
+/**
+ * Receives timestamps of the steps every {@link Snackbar} goes through, to measure how long they
+ * take to appear and how long they stay on screen. Install one with
+ * {@link SnackbarManager#setMetrics(SnackbarMetrics)}.
+ * <p/>
+ * All callbacks happen on the main thread, with timestamps from {@link System#nanoTime()}.
+ * They're called for every Snackbar shown, so implementations shouldn't allocate or block.
+ */
+public interface SnackbarMetrics {
+
+    /**
+     * Receives nothing, the default. No timestamps are taken while it's installed
+     */
+    SnackbarMetrics NONE = new SnackbarMetrics() {
+        @Override
+        public void onShowRequested(Snackbar snackbar, long timeNanos) {
+        }
+
+        @Override
+        public void onViewReady(Snackbar snackbar, long timeNanos) {
+        }
+
+        @Override
+        public void onFirstPreDraw(Snackbar snackbar, long timeNanos) {
+        }
+
+        @Override
+        public void onEnterAnimationEnd(Snackbar snackbar, long timeNanos) {
+        }
+
+        @Override
+        public void onDismissRequested(Snackbar snackbar, DismissReason reason, long timeNanos) {
+        }
+
+        @Override
+        public void onFinished(Snackbar snackbar, DismissReason reason, long timeNanos) {
+        }
+
+        @Override
+        public void onListenerCallback(Snackbar snackbar, long durationNanos) {
+        }
+    };
+
+    /**
+     * Called when one of the {@code show} methods is called, before any work is done
+     */
+    void onShowRequested(Snackbar snackbar, long timeNanos);
+
+    /**
+     * Called once the {@link Snackbar} is inflated, bound and added to its parent
+     */
+    void onViewReady(Snackbar snackbar, long timeNanos);
+
+    /**
+     * Called right before the first frame showing the {@link Snackbar} is drawn
+     */
+    void onFirstPreDraw(Snackbar snackbar, long timeNanos);
+
+    /**
+     * Called when the {@link Snackbar} is fully shown, when its enter animation ends or when it's
+     * first drawn if it isn't animated
+     */
+    void onEnterAnimationEnd(Snackbar snackbar, long timeNanos);
+
+    /**
+     * Called when the {@link Snackbar} starts being dismissed, before its exit animation
+     */
+    void onDismissRequested(Snackbar snackbar, DismissReason reason, long timeNanos);
+
+    /**
+     * Called once the {@link Snackbar} has been removed from its parent
+     */
+    void onFinished(Snackbar snackbar, DismissReason reason, long timeNanos);
+
+    /**
+     * Called after each {@link com.nispok.snackbar.listeners.EventListener} or
+     * {@link com.nispok.snackbar.listeners.ActionClickListener} callback, with the time it took
+     */
+    void onListenerCallback(Snackbar snackbar, long durationNanos);
+}
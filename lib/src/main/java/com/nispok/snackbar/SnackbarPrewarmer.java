@@ -0,0 +1,171 @@
+package com.nispok.snackbar;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.view.animation.AnimationUtils;
+
+import com.nispok.snackbar.layouts.SnackbarLayout;
+import com.nispok.snackbar.listeners.SwipeDismissTouchListener;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Does the work of the first {@link Snackbar} of a session ahead of time, see
+ * {@link Snackbar#prewarm(Context)}. Loading classes, resolving resources and parsing the
+ * animations are thread safe and done once per process on a background thread. A view can only be
+ * built on the main thread, so when warming up for an Activity a Snackbar is inflated for it once
+ * the main thread is idle, and handed out by the next {@link Snackbar#with(Context)} of that
+ * Activity.
+ */
+final class SnackbarPrewarmer implements Runnable, MessageQueue.IdleHandler {
+
+    // Class literals, so the list still holds once the app is obfuscated
+    private static final Class<?>[] CLASSES = {
+            Snackbar.class,
+            SnackbarManager.class,
+            SnackbarTimer.class,
+            SnackbarLayout.class,
+            SwipeDismissTouchListener.class,
+    };
+
+    private static final int[] ANIMATIONS = {
+            R.anim.snackbar_top_in,
+            R.anim.snackbar_top_out,
+            R.anim.snackbar_bottom_in,
+            R.anim.snackbar_bottom_out,
+    };
+
+    private static boolean backgroundStarted;
+
+    // Only touched on the main thread
+    private static Snackbar pooled;
+
+    private static volatile SnackbarPrewarmer latest;
+
+    private final Context mContext;
+    private final WeakReference<Activity> mActivity;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final CountDownLatch mDone = new CountDownLatch(1);
+
+    private SnackbarPrewarmer(Context context) {
+        mContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        mActivity = context instanceof Activity ? new WeakReference<Activity>((Activity) context) : null;
+    }
+
+    static void start(Context context) {
+        SnackbarPrewarmer prewarmer = new SnackbarPrewarmer(context);
+        latest = prewarmer;
+        boolean startBackground;
+        synchronized (SnackbarPrewarmer.class) {
+            startBackground = !backgroundStarted;
+            backgroundStarted = true;
+        }
+        if (startBackground) {
+            Thread thread = new Thread(prewarmer, "Snackbar prewarm");
+            thread.start();
+        } else {
+            prewarmer.onBackgroundDone();
+        }
+    }
+
+    /**
+     * @return the Snackbar inflated for {@code context}, if any, which is then no longer pooled
+     */
+    static Snackbar takePooled(Context context) {
+        Snackbar snackbar = pooled;
+        if (snackbar == null || snackbar.getContext() != context
+                || Looper.myLooper() != Looper.getMainLooper()) {
+            return null;
+        }
+        pooled = null;
+        return snackbar;
+    }
+
+    static void onActivityDestroyed(Activity activity) {
+        if (pooled != null && pooled.getContext() == activity) {
+            pooled = null;
+        }
+    }
+
+    /**
+     * Waits for the latest {@link #start(Context)} to be done, for tests and benchmarks
+     *
+     * @return whether it was done in time
+     */
+    static boolean awaitLatest(long timeoutMillis) throws InterruptedException {
+        SnackbarPrewarmer prewarmer = latest;
+        return prewarmer == null || prewarmer.mDone.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        SnackbarTrace.beginSection("Snackbar#prewarm");
+        try {
+            ClassLoader loader = SnackbarPrewarmer.class.getClassLoader();
+            for (Class<?> cls : CLASSES) {
+                try {
+                    // A class literal loads the class but doesn't run its static initializers
+                    Class.forName(cls.getName(), true, loader);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            Resources res = mContext.getResources();
+            res.getColor(R.color.sb__background);
+            res.getColor(R.color.sb__text_color);
+            res.getColor(R.color.sb__action_text_color);
+            res.getDimensionPixelOffset(R.dimen.sb__offset);
+            res.getDimensionPixelSize(R.dimen.sb__min_width);
+            res.getDimensionPixelSize(R.dimen.sb__max_width);
+            res.getBoolean(R.bool.sb__is_phone);
+            res.getBoolean(R.bool.sb__is_swipeable);
+            res.getDrawable(R.drawable.sb__bg);
+            for (int animation : ANIMATIONS) {
+                AnimationUtils.loadAnimation(mContext, animation);
+            }
+        } finally {
+            SnackbarTrace.endSection();
+        }
+        onBackgroundDone();
+    }
+
+    private void onBackgroundDone() {
+        if (mActivity == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            // Without lifecycle callbacks a pooled Snackbar could outlive its Activity
+            mDone.countDown();
+            return;
+        }
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(SnackbarPrewarmer.this);
+            }
+        });
+    }
+
+    @Override
+    public boolean queueIdle() {
+        Activity activity = mActivity.get();
+        if (activity != null && !activity.isFinishing()) {
+            SnackbarTrace.beginSection("Snackbar#prewarmView");
+            try {
+                SnackbarManager.registerLifecycleCallbacks(activity);
+                pooled = Snackbar.inflate(activity);
+            } finally {
+                SnackbarTrace.endSection();
+            }
+        }
+        mDone.countDown();
+        return false;
+    }
+}
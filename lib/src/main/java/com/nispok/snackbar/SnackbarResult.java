@@ -0,0 +1,65 @@
+package com.nispok.snackbar;
+
+import android.os.Looper;
+
+import com.nispok.snackbar.enums.DismissReason;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a {@link Snackbar}: the one {@link DismissReason} it went away with. Each
+ * Snackbar has a single result, see {@link Snackbar#getResult()}, which is reset when it's shown
+ * again, so checking or waiting for the outcome doesn't allocate anything.
+ */
+public final class SnackbarResult {
+
+    private DismissReason mReason;
+
+    SnackbarResult() {
+    }
+
+    /**
+     * @return whether the Snackbar is gone
+     */
+    public synchronized boolean isDone() {
+        return mReason != null;
+    }
+
+    /**
+     * @return why the Snackbar was dismissed, or null if it's still showing
+     */
+    public synchronized DismissReason getReason() {
+        return mReason;
+    }
+
+    /**
+     * Waits for the Snackbar to be gone. Must not be called on the main thread, which dismisses it
+     *
+     * @return why the Snackbar was dismissed, or null if it's still showing after {@code timeout}
+     */
+    public synchronized DismissReason await(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("Waiting on the main thread would never end");
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (mReason == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return mReason;
+    }
+
+    synchronized void set(DismissReason reason) {
+        if (mReason == null) {
+            mReason = reason;
+            notifyAll();
+        }
+    }
+
+    synchronized void reset() {
+        mReason = null;
+    }
+}
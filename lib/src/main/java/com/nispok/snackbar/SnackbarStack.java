@@ -0,0 +1,264 @@
+package com.nispok.snackbar;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.nispok.snackbar.enums.DismissReason;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Snackbars {@link SnackbarManager} shows at the same time when stacking is on. The newest
+ * one sits at the edge of the screen and older ones are moved away from it by translation, so
+ * showing or removing one never lays the others out again. Snackbars past the maximum wait in a
+ * queue, counted by a "+N more" entry at the end of the stack, until a place frees up.
+ * Everything is held weakly except the queued Snackbars themselves.
+ */
+final class SnackbarStack {
+
+    private static final long MOVE_DURATION = 250;
+
+    private final List<WeakReference<Snackbar>> mShowing = new ArrayList<WeakReference<Snackbar>>();
+    private final List<Pending> mPending = new ArrayList<Pending>();
+    private WeakReference<ViewGroup> mParent;
+    private WeakReference<TextView> mMoreView;
+    private int mMaxVisible = 1;
+
+    void setMaxVisible(int maxVisible) {
+        mMaxVisible = Math.max(1, maxVisible);
+    }
+
+    /**
+     * @return whether Snackbars should go through the stack. Moving them around needs
+     * {@link View#animate()}, so stacking is off before Honeycomb MR1
+     */
+    boolean isEnabled() {
+        return mMaxVisible > 1 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1;
+    }
+
+    /**
+     * Shows {@code snackbar} on top of the stack, or queues it if the stack is full
+     *
+     * @param activity the Activity to show it in, or null to show it in {@code parent}
+     */
+    void show(Snackbar snackbar, Activity activity, ViewGroup parent, boolean usePhoneLayout) {
+        prune();
+        if (getParent() != parent) {
+            // A new screen, the Snackbars of the old one go away as in single mode
+            clear();
+            mParent = new WeakReference<ViewGroup>(parent);
+        }
+        if (mShowing.size() >= mMaxVisible) {
+            mPending.add(new Pending(snackbar, activity, usePhoneLayout));
+            snackbar.onQueued();
+            updateMoreView();
+            return;
+        }
+        showNow(snackbar, activity, parent, usePhoneLayout);
+    }
+
+    /**
+     * @return the Snackbars showing, oldest first
+     */
+    List<Snackbar> getShowing() {
+        List<Snackbar> showing = new ArrayList<Snackbar>(mShowing.size());
+        for (int i = 0; i < mShowing.size(); i++) {
+            Snackbar snackbar = mShowing.get(i).get();
+            if (snackbar != null) {
+                showing.add(snackbar);
+            }
+        }
+        return showing;
+    }
+
+    int getPendingCount() {
+        return mPending.size();
+    }
+
+    /**
+     * Drops the queued Snackbars that were to be shown in {@code activity}
+     */
+    void removePending(Activity activity) {
+        ViewGroup parent = getParent();
+        boolean parentInActivity = parent == null || parent.getContext() == activity;
+        List<Pending> dropped = new ArrayList<Pending>();
+        for (int i = mPending.size() - 1; i >= 0; i--) {
+            Pending pending = mPending.get(i);
+            Activity pendingActivity = pending.mActivity != null ? pending.mActivity.get() : null;
+            boolean hosted = pending.mActivity != null
+                    ? pendingActivity == null || pendingActivity == activity
+                    : parentInActivity || pending.mSnackbar.getContext() == activity;
+            if (hosted) {
+                dropped.add(mPending.remove(i));
+            }
+        }
+        updateMoreView();
+        for (int i = 0; i < dropped.size(); i++) {
+            dropped.get(i).mSnackbar.onDequeued(DismissReason.HOST_DESTROYED);
+        }
+    }
+
+    void onSnackbarFinished(Snackbar snackbar) {
+        int index = indexOf(snackbar);
+        if (index == -1) {
+            return;
+        }
+        mShowing.remove(index);
+        snackbar.animate().cancel();
+        snackbar.setTranslationY(0);
+        ViewGroup parent = getParent();
+        while (parent != null && mShowing.size() < mMaxVisible && !mPending.isEmpty()) {
+            Pending pending = mPending.remove(0);
+            Activity activity = pending.mActivity != null ? pending.mActivity.get() : null;
+            if (pending.mActivity == null || activity != null) {
+                showNow(pending.mSnackbar, activity, parent, pending.mUsePhoneLayout);
+            } else {
+                pending.mSnackbar.onDequeued(DismissReason.HOST_DESTROYED);
+            }
+        }
+        updateMoreView();
+        layout();
+    }
+
+    /**
+     * Called once a Snackbar of the stack has its size, to move the others out of its way
+     */
+    void onSnackbarLaidOut(Snackbar snackbar) {
+        if (indexOf(snackbar) != -1) {
+            layout();
+        }
+    }
+
+    private void showNow(Snackbar snackbar, Activity activity, ViewGroup parent,
+                         boolean usePhoneLayout) {
+        mShowing.add(new WeakReference<Snackbar>(snackbar));
+        if (activity != null) {
+            snackbar.show(activity);
+        } else {
+            snackbar.show(parent, usePhoneLayout);
+        }
+        SnackbarManager.onShownFromStack(snackbar);
+        layout();
+    }
+
+    private void layout() {
+        float offset = 0;
+        Snackbar newest = null;
+        for (int i = mShowing.size() - 1; i >= 0; i--) {
+            Snackbar snackbar = mShowing.get(i).get();
+            if (snackbar == null || !snackbar.isShowing()) {
+                continue;
+            }
+            if (newest == null) {
+                newest = snackbar;
+            }
+            moveTo(snackbar, snackbar.isPositionTop() ? offset : -offset);
+            offset += snackbar.getHeight() + snackbar.getStackSpacing();
+        }
+        TextView moreView = getMoreView();
+        if (moreView != null && newest != null) {
+            moveTo(moreView, newest.isPositionTop() ? offset : -offset);
+        }
+    }
+
+    private void moveTo(View view, float translationY) {
+        if (view.getTranslationY() == translationY) {
+            return;
+        }
+        if (SnackbarManager.isInstantAnimations()) {
+            view.setTranslationY(translationY);
+        } else {
+            view.animate().translationY(translationY).setDuration(MOVE_DURATION);
+        }
+    }
+
+    private void updateMoreView() {
+        TextView moreView = getMoreView();
+        ViewGroup parent = getParent();
+        Snackbar newest = getNewest();
+        if (mPending.isEmpty() || parent == null || newest == null) {
+            if (moreView != null && moreView.getParent() != null) {
+                ((ViewGroup) moreView.getParent()).removeView(moreView);
+            }
+            mMoreView = null;
+            return;
+        }
+        if (moreView == null) {
+            moreView = (TextView) LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.sb__stack_more, parent, false);
+            parent.addView(moreView, newest.createStackLayoutParams(parent));
+            mMoreView = new WeakReference<TextView>(moreView);
+            layout();
+        }
+        moreView.setText(parent.getContext().getString(R.string.sb__stack_more, mPending.size()));
+    }
+
+    private void clear() {
+        List<Snackbar> showing = getShowing();
+        mShowing.clear();
+        // Taken out first, as a ResultListener may show another Snackbar right away
+        List<Pending> dropped = new ArrayList<Pending>(mPending);
+        mPending.clear();
+        for (int i = 0; i < dropped.size(); i++) {
+            dropped.get(i).mSnackbar.onDequeued(DismissReason.REPLACE);
+        }
+        for (int i = 0; i < showing.size(); i++) {
+            showing.get(i).dismissByReplace();
+        }
+        updateMoreView();
+    }
+
+    private void prune() {
+        for (int i = mShowing.size() - 1; i >= 0; i--) {
+            Snackbar snackbar = mShowing.get(i).get();
+            if (snackbar == null || !snackbar.isShowing()) {
+                mShowing.remove(i);
+            }
+        }
+    }
+
+    private int indexOf(Snackbar snackbar) {
+        for (int i = 0; i < mShowing.size(); i++) {
+            if (mShowing.get(i).get() == snackbar) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Snackbar getNewest() {
+        for (int i = mShowing.size() - 1; i >= 0; i--) {
+            Snackbar snackbar = mShowing.get(i).get();
+            if (snackbar != null) {
+                return snackbar;
+            }
+        }
+        return null;
+    }
+
+    private ViewGroup getParent() {
+        return mParent != null ? mParent.get() : null;
+    }
+
+    private TextView getMoreView() {
+        return mMoreView != null ? mMoreView.get() : null;
+    }
+
+    private static class Pending {
+        final Snackbar mSnackbar;
+        final WeakReference<Activity> mActivity;
+        final boolean mUsePhoneLayout;
+
+        Pending(Snackbar snackbar, Activity activity, boolean usePhoneLayout) {
+            mSnackbar = snackbar;
+            mActivity = activity != null ? new WeakReference<Activity>(activity) : null;
+            mUsePhoneLayout = usePhoneLayout;
+        }
+    }
+}
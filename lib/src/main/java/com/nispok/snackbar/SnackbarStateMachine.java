@@ -0,0 +1,98 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.enums.SnackbarState;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@link SnackbarState} of a {@link Snackbar}. Every change goes through a compare-and-set
+ * against the table of {@link #isAllowed(SnackbarState, SnackbarState) allowed transitions}, so of
+ * two threads racing to dismiss a Snackbar only one gets to, and a state can't be skipped.
+ */
+final class SnackbarStateMachine {
+
+    private final AtomicReference<SnackbarState> mState;
+
+    SnackbarStateMachine() {
+        this(SnackbarState.IDLE);
+    }
+
+    SnackbarStateMachine(SnackbarState initial) {
+        mState = new AtomicReference<SnackbarState>(initial);
+    }
+
+    SnackbarState get() {
+        return mState.get();
+    }
+
+    /**
+     * Moves to {@code to} from whatever the current state is, if that transition is allowed
+     *
+     * @return whether the state changed
+     */
+    boolean moveTo(SnackbarState to) {
+        while (true) {
+            SnackbarState from = mState.get();
+            if (!isAllowed(from, to)) {
+                return false;
+            }
+            if (mState.compareAndSet(from, to)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves to {@code to} only if the current state is {@code from}
+     *
+     * @return whether the state changed
+     */
+    boolean moveFrom(SnackbarState from, SnackbarState to) {
+        return isAllowed(from, to) && mState.compareAndSet(from, to);
+    }
+
+    /**
+     * @return true from the moment the Snackbar is added to its parent until it's removed
+     */
+    boolean isShowing() {
+        return isShowing(mState.get());
+    }
+
+    static boolean isShowing(SnackbarState state) {
+        switch (state) {
+            case ENTERING:
+            case SHOWN:
+            case PAUSED:
+            case EXITING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isAllowed(SnackbarState from, SnackbarState to) {
+        switch (to) {
+            case IDLE:
+                // Taken out of a queue, or reset for reuse
+                return from == SnackbarState.QUEUED || from == SnackbarState.FINISHED;
+            case QUEUED:
+                return from == SnackbarState.IDLE || from == SnackbarState.FINISHED;
+            case ENTERING:
+                return from == SnackbarState.IDLE || from == SnackbarState.QUEUED
+                        || from == SnackbarState.FINISHED;
+            case SHOWN:
+                return from == SnackbarState.ENTERING || from == SnackbarState.PAUSED;
+            case PAUSED:
+                return from == SnackbarState.ENTERING || from == SnackbarState.SHOWN;
+            case EXITING:
+                return from == SnackbarState.ENTERING || from == SnackbarState.SHOWN
+                        || from == SnackbarState.PAUSED;
+            case FINISHED:
+                // Removed without animating out when its Activity is recreated
+                return from == SnackbarState.EXITING || from == SnackbarState.ENTERING
+                        || from == SnackbarState.SHOWN || from == SnackbarState.PAUSED;
+            default:
+                return false;
+        }
+    }
+}
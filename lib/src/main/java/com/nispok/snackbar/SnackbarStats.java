@@ -0,0 +1,163 @@
+package com.nispok.snackbar;
+
+import com.nispok.snackbar.enums.DismissReason;
+
+/**
+ * {@link SnackbarMetrics} that aggregates timings of all {@link Snackbar}s into histograms:
+ * <ul>
+ * <li>show latency, from a show being requested to the first frame drawn</li>
+ * <li>enter animation duration</li>
+ * <li>on-screen time, from the first frame drawn to the Snackbar being removed</li>
+ * <li>time spent in {@link com.nispok.snackbar.listeners.EventListener} and
+ * {@link com.nispok.snackbar.listeners.ActionClickListener} callbacks</li>
+ * </ul>
+ * Install it with {@link SnackbarManager#setMetrics(SnackbarMetrics)} and read the percentiles
+ * from {@link #snapshot()} whenever they need to be reported. Recording doesn't allocate or lock.
+ */
+public final class SnackbarStats implements SnackbarMetrics {
+
+    private final LatencyHistogram mShowLatency = new LatencyHistogram();
+    private final LatencyHistogram mEnterAnimation = new LatencyHistogram();
+    private final LatencyHistogram mOnScreen = new LatencyHistogram();
+    private final LatencyHistogram mListenerCallback = new LatencyHistogram();
+
+    /**
+     * @return the current state of all histograms. Can be called from any thread
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(new Distribution(mShowLatency.snapshot()),
+                new Distribution(mEnterAnimation.snapshot()),
+                new Distribution(mOnScreen.snapshot()),
+                new Distribution(mListenerCallback.snapshot()));
+    }
+
+    /**
+     * Empties all histograms, e.g. after their snapshot has been reported
+     */
+    public void reset() {
+        mShowLatency.reset();
+        mEnterAnimation.reset();
+        mOnScreen.reset();
+        mListenerCallback.reset();
+    }
+
+    @Override
+    public void onShowRequested(Snackbar snackbar, long timeNanos) {
+    }
+
+    @Override
+    public void onViewReady(Snackbar snackbar, long timeNanos) {
+    }
+
+    @Override
+    public void onFirstPreDraw(Snackbar snackbar, long timeNanos) {
+        mShowLatency.record(timeNanos - snackbar.getShowRequestedNanos());
+    }
+
+    @Override
+    public void onEnterAnimationEnd(Snackbar snackbar, long timeNanos) {
+        if (snackbar.hasEnterAnimation() && snackbar.getFirstPreDrawNanos() != 0) {
+            mEnterAnimation.record(timeNanos - snackbar.getFirstPreDrawNanos());
+        }
+    }
+
+    @Override
+    public void onDismissRequested(Snackbar snackbar, DismissReason reason, long timeNanos) {
+    }
+
+    @Override
+    public void onFinished(Snackbar snackbar, DismissReason reason, long timeNanos) {
+        long visibleSince = snackbar.getFirstPreDrawNanos() != 0
+                ? snackbar.getFirstPreDrawNanos() : snackbar.getShownNanos();
+        if (visibleSince != 0) {
+            mOnScreen.record(timeNanos - visibleSince);
+        }
+    }
+
+    @Override
+    public void onListenerCallback(Snackbar snackbar, long durationNanos) {
+        mListenerCallback.record(durationNanos);
+    }
+
+    /**
+     * Percentiles of all the timings recorded up to {@link SnackbarStats#snapshot()}
+     */
+    public static final class Snapshot {
+        private final Distribution mShowLatency;
+        private final Distribution mEnterAnimation;
+        private final Distribution mOnScreen;
+        private final Distribution mListenerCallback;
+
+        Snapshot(Distribution showLatency, Distribution enterAnimation, Distribution onScreen,
+                 Distribution listenerCallback) {
+            mShowLatency = showLatency;
+            mEnterAnimation = enterAnimation;
+            mOnScreen = onScreen;
+            mListenerCallback = listenerCallback;
+        }
+
+        public Distribution getShowLatency() {
+            return mShowLatency;
+        }
+
+        public Distribution getEnterAnimation() {
+            return mEnterAnimation;
+        }
+
+        public Distribution getOnScreen() {
+            return mOnScreen;
+        }
+
+        public Distribution getListenerCallback() {
+            return mListenerCallback;
+        }
+    }
+
+    /**
+     * Recorded durations of one kind. Percentiles are the upper bound of the histogram bucket
+     * they fall in, so they're overestimated by at most 1/8
+     */
+    public static final class Distribution {
+        private final long[] mCounts;
+        private final long mCount;
+
+        Distribution(long[] counts) {
+            mCounts = counts;
+            long count = 0;
+            for (long bucketCount : counts) {
+                count += bucketCount;
+            }
+            mCount = count;
+        }
+
+        /**
+         * @return the number of durations recorded
+         */
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * @param percentile between 0 and 100, e.g. 99 for the p99
+         * @return the duration in nanoseconds under which {@code percentile}% of the recorded
+         * durations fall, or 0 if nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            if (mCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mCount));
+            long seen = 0;
+            for (int bucket = 0; bucket < mCounts.length; bucket++) {
+                seen += mCounts[bucket];
+                if (seen >= rank) {
+                    return LatencyHistogram.upperBoundOf(bucket);
+                }
+            }
+            return LatencyHistogram.upperBoundOf(mCounts.length - 1);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.nispok.snackbar;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+
+/**
+ * Single scheduler for all {@link Snackbar} timeouts. Pending entries are kept in a min-heap keyed
+ * on their {@link SnackbarClock} deadline and only one {@link Handler} message, for the nearest
+ * deadline, is ever queued. With a clock that isn't {@link SnackbarClock#isRealTime() real time},
+ * such as a {@link ManualSnackbarClock}, no message is queued at all and entries expire when the
+ * clock is advanced. Scheduling, cancelling and rescheduling an entry are O(log n) and don't
+ * allocate.
+ */
+class SnackbarTimer implements Handler.Callback {
+
+    /**
+     * Something that can be scheduled on a {@link SnackbarTimer}. An entry can be scheduled on
+     * only one timer at a time and is meant to be reused.
+     */
+    static abstract class Entry {
+        private long deadline;
+        private int index = -1;
+
+        /**
+         * Called on the timer's thread once the deadline of this entry has passed
+         */
+        abstract void onExpired();
+
+        boolean isScheduled() {
+            return index != -1;
+        }
+    }
+
+    private static final int MSG_EXPIRE = 1;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final Handler mHandler;
+    private SnackbarClock mClock;
+    private Entry[] mHeap = new Entry[4];
+    private int mSize;
+    private long mPostedDeadline = NO_DEADLINE;
+
+    SnackbarTimer(Looper looper, SnackbarClock clock) {
+        mHandler = new Handler(looper, this);
+        mClock = clock;
+    }
+
+    /**
+     * Changes the clock deadlines are measured with. Entries already scheduled keep their
+     * deadline, so this should be done before any {@link Snackbar} is shown
+     */
+    void setClock(SnackbarClock clock) {
+        mClock = clock;
+        mPostedDeadline = NO_DEADLINE;
+        updateMessage();
+    }
+
+    /**
+     * Schedules the entry to expire at the given uptime, moving it if it was already scheduled
+     */
+    void schedule(Entry entry, long deadline) {
+        if (entry.isScheduled()) {
+            long previous = entry.deadline;
+            entry.deadline = deadline;
+            if (deadline < previous) {
+                siftUp(entry.index);
+            } else {
+                siftDown(entry.index);
+            }
+        } else {
+            if (mSize == mHeap.length) {
+                Entry[] heap = new Entry[mSize * 2];
+                System.arraycopy(mHeap, 0, heap, 0, mSize);
+                mHeap = heap;
+            }
+            entry.deadline = deadline;
+            entry.index = mSize;
+            mHeap[mSize++] = entry;
+            siftUp(entry.index);
+        }
+        updateMessage();
+    }
+
+    void cancel(Entry entry) {
+        if (!entry.isScheduled()) {
+            return;
+        }
+        removeAt(entry.index);
+        updateMessage();
+    }
+
+    @Override
+    public boolean handleMessage(Message msg) {
+        if (msg.what != MSG_EXPIRE) {
+            return false;
+        }
+        mPostedDeadline = NO_DEADLINE;
+        expireDue();
+        return true;
+    }
+
+    /**
+     * Expires every entry whose deadline has passed according to the current clock
+     */
+    void expireDue() {
+        long now = mClock.uptimeMillis();
+        while (mSize > 0 && mHeap[0].deadline <= now) {
+            Entry entry = mHeap[0];
+            removeAt(0);
+            entry.onExpired();
+        }
+        updateMessage();
+    }
+
+    private void updateMessage() {
+        long next = mSize > 0 ? mHeap[0].deadline : NO_DEADLINE;
+        if (next == mPostedDeadline) {
+            return;
+        }
+        mHandler.removeMessages(MSG_EXPIRE);
+        mPostedDeadline = next;
+        if (next == NO_DEADLINE || !mClock.isRealTime()) {
+            return;
+        }
+        if (mClock != SnackbarClock.SYSTEM) {
+            // the Handler only knows about SystemClock
+            next = SystemClock.uptimeMillis() + Math.max(0, next - mClock.uptimeMillis());
+        }
+        mHandler.sendEmptyMessageAtTime(MSG_EXPIRE, next);
+    }
+
+    private void removeAt(int index) {
+        Entry removed = mHeap[index];
+        Entry last = mHeap[--mSize];
+        mHeap[mSize] = null;
+        removed.index = -1;
+        if (index == mSize) {
+            return;
+        }
+        mHeap[index] = last;
+        last.index = index;
+        if (last.deadline < removed.deadline) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        Entry entry = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Entry parentEntry = mHeap[parent];
+            if (parentEntry.deadline <= entry.deadline) {
+                break;
+            }
+            mHeap[index] = parentEntry;
+            parentEntry.index = index;
+            index = parent;
+        }
+        mHeap[index] = entry;
+        entry.index = index;
+    }
+
+    private void siftDown(int index) {
+        Entry entry = mHeap[index];
+        int half = mSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < mSize && mHeap[right].deadline < mHeap[child].deadline) {
+                child = right;
+            }
+            if (entry.deadline <= mHeap[child].deadline) {
+                break;
+            }
+            mHeap[index] = mHeap[child];
+            mHeap[index].index = index;
+            index = child;
+        }
+        mHeap[index] = entry;
+        entry.index = index;
+    }
+}
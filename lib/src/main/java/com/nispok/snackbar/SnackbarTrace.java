@@ -0,0 +1,127 @@
+package com.nispok.snackbar;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+import android.util.Log;
+
+import java.lang.reflect.Method;
+
+/**
+ * Opt-in {@link Trace} sections around the Snackbar hot paths, so they show up by name in system
+ * traces. Enable them with {@link SnackbarManager#setTracingEnabled(boolean)}; while disabled
+ * every call is a single static field read.
+ * <p/>
+ * Sections need API 18. The async slices spanning each Snackbar's time on screen use the public
+ * {@code Trace.beginAsyncSection()} from API 29 and hidden {@link Trace} methods before that, both
+ * called through reflection, and are skipped where those can't be found.
+ */
+final class SnackbarTrace {
+
+    private static final String TAG = SnackbarTrace.class.getSimpleName();
+
+    /**
+     * Android 10, which made the async trace methods public and restricted the hidden ones
+     */
+    private static final int SDK_PUBLIC_ASYNC_TRACE = 29;
+
+    private static boolean enabled;
+
+    private static boolean asyncResolved;
+    private static long traceTagApp;
+    private static Method isTagEnabled;
+    private static Method asyncTraceBegin;
+    private static Method asyncTraceEnd;
+    private static boolean asyncTakesTag;
+
+    private SnackbarTrace() {
+    }
+
+    static void setEnabled(boolean traceEnabled) {
+        enabled = traceEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Begins a section, which must be ended by {@link #endSection()} on the same thread
+     */
+    static void beginSection(String name) {
+        if (enabled) {
+            beginSectionJBMR2(name);
+        }
+    }
+
+    static void endSection() {
+        if (enabled) {
+            endSectionJBMR2();
+        }
+    }
+
+    /**
+     * Begins a slice that may end on another thread or in another frame, identified by
+     * {@code name} and {@code cookie}
+     */
+    static void beginAsyncSection(String name, int cookie) {
+        if (enabled && resolveAsync()) {
+            invokeAsync(asyncTraceBegin, name, cookie);
+        }
+    }
+
+    static void endAsyncSection(String name, int cookie) {
+        if (enabled && resolveAsync()) {
+            invokeAsync(asyncTraceEnd, name, cookie);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void beginSectionJBMR2(String name) {
+        Trace.beginSection(name);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void endSectionJBMR2() {
+        Trace.endSection();
+    }
+
+    private static boolean resolveAsync() {
+        if (!asyncResolved) {
+            asyncResolved = true;
+            try {
+                if (Build.VERSION.SDK_INT >= SDK_PUBLIC_ASYNC_TRACE) {
+                    asyncTraceBegin = Trace.class.getMethod("beginAsyncSection",
+                            String.class, int.class);
+                    asyncTraceEnd = Trace.class.getMethod("endAsyncSection",
+                            String.class, int.class);
+                    return true;
+                }
+                asyncTakesTag = true;
+                traceTagApp = Trace.class.getField("TRACE_TAG_APP").getLong(null);
+                isTagEnabled = Trace.class.getMethod("isTagEnabled", long.class);
+                asyncTraceBegin = Trace.class.getMethod("asyncTraceBegin",
+                        long.class, String.class, int.class);
+                asyncTraceEnd = Trace.class.getMethod("asyncTraceEnd",
+                        long.class, String.class, int.class);
+            } catch (Exception e) {
+                Log.w(TAG, "Async trace sections aren't available", e);
+                asyncTraceBegin = null;
+            }
+        }
+        return asyncTraceBegin != null;
+    }
+
+    private static void invokeAsync(Method method, String name, int cookie) {
+        try {
+            if (!asyncTakesTag) {
+                method.invoke(null, name, cookie);
+            } else if ((Boolean) isTagEnabled.invoke(null, traceTagApp)) {
+                method.invoke(null, traceTagApp, name, cookie);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Async trace sections aren't available", e);
+            asyncTraceBegin = null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.nispok.snackbar;
+
+import android.support.annotation.NonNull;
+
+import com.nispok.snackbar.listeners.UndoCommitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds back operations, such as deletes, while the {@link Snackbar}s offering to undo them are
+ * on screen. Undoing an operation drops it; the others expire once their Snackbar goes away and
+ * are committed together as soon as no operation of the buffer can be undone anymore, so deleting
+ * ten items in a row ends up in a single call to the {@link UndoCommitter}. See
+ * {@link Snackbar#undoable(UndoBuffer, Object)}.
+ *
+ * @param <T> the type of the operations
+ */
+public final class UndoBuffer<T> {
+
+    private final Executor mExecutor;
+    private final UndoCommitter<T> mCommitter;
+    private final List<T> mPending = new ArrayList<T>();
+    private List<T> mExpired = new ArrayList<T>();
+
+    /**
+     * @param executor  the executor to commit operations on, e.g. a database thread
+     * @param committer commits the operations that weren't undone
+     */
+    public UndoBuffer(@NonNull Executor executor, @NonNull UndoCommitter<T> committer) {
+        mExecutor = executor;
+        mCommitter = committer;
+    }
+
+    /**
+     * Holds back {@code operation} until it's undone or expires. Done by
+     * {@link Snackbar#undoable(UndoBuffer, Object)}, so it's only needed for operations that aren't
+     * tied to a Snackbar
+     */
+    public synchronized void add(T operation) {
+        if (!mPending.contains(operation)) {
+            mPending.add(operation);
+        }
+    }
+
+    /**
+     * Drops {@code operation}, which will never be committed
+     *
+     * @return whether it was still pending
+     */
+    public boolean undo(T operation) {
+        List<T> batch;
+        synchronized (this) {
+            if (!mPending.remove(operation)) {
+                return false;
+            }
+            batch = takeBatchIfSettled();
+        }
+        commit(batch);
+        return true;
+    }
+
+    /**
+     * Marks {@code operation} as no longer undoable. It's committed along with the other expired
+     * operations once none is pending anymore
+     */
+    public void expire(T operation) {
+        List<T> batch;
+        synchronized (this) {
+            if (!mPending.remove(operation)) {
+                return;
+            }
+            mExpired.add(operation);
+            batch = takeBatchIfSettled();
+        }
+        commit(batch);
+    }
+
+    /**
+     * Commits the expired operations right away, without waiting for the pending ones, e.g. when
+     * the app goes to the background
+     */
+    public void flush() {
+        List<T> batch;
+        synchronized (this) {
+            batch = takeBatch();
+        }
+        commit(batch);
+    }
+
+    /**
+     * @return the number of operations that can still be undone
+     */
+    public synchronized int getPendingCount() {
+        return mPending.size();
+    }
+
+    Binding<T> bind(T operation) {
+        return new Binding<T>(this, operation);
+    }
+
+    private List<T> takeBatchIfSettled() {
+        return mPending.isEmpty() ? takeBatch() : null;
+    }
+
+    private List<T> takeBatch() {
+        if (mExpired.isEmpty()) {
+            return null;
+        }
+        List<T> batch = mExpired;
+        mExpired = new ArrayList<T>();
+        return batch;
+    }
+
+    private void commit(final List<T> batch) {
+        if (batch == null) {
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mCommitter.commit(batch);
+            }
+        });
+    }
+
+    /**
+     * An operation tied to a {@link Snackbar}. It's only pending while the Snackbar is on screen,
+     * and is settled once, however the Snackbar goes away: undone if its action was clicked,
+     * committed otherwise, including when it's dropped before it was ever shown
+     */
+    static final class Binding<T> {
+        private final UndoBuffer<T> mBuffer;
+        private final T mOperation;
+
+        private Binding(UndoBuffer<T> buffer, T operation) {
+            mBuffer = buffer;
+            mOperation = operation;
+        }
+
+        void onShown() {
+            mBuffer.add(mOperation);
+        }
+
+        void settle(boolean undone) {
+            // Added first, so an operation that was never shown is committed too
+            mBuffer.add(mOperation);
+            if (undone) {
+                mBuffer.undo(mOperation);
+            } else {
+                mBuffer.expire(mOperation);
+            }
+        }
+    }
+}
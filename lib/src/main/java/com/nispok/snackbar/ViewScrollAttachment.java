@@ -0,0 +1,46 @@
+package com.nispok.snackbar;
+
+import android.view.View;
+
+/**
+ * Follows the scroll offsets of any view that scrolls its own content, such as a ScrollView,
+ * NestedScrollView or WebView, through the {@link WindowScrollObserver} of its window.
+ */
+class ViewScrollAttachment extends ScrollAttachment {
+
+    private final View mView;
+    private WindowScrollObserver mObserver;
+    private int mScrollX;
+    private int mScrollY;
+
+    ViewScrollAttachment(Snackbar snackbar, View view) {
+        super(snackbar);
+        mView = view;
+    }
+
+    @Override
+    void onAttach() {
+        mScrollX = mView.getScrollX();
+        mScrollY = mView.getScrollY();
+        mObserver = WindowScrollObserver.get(mView.getRootView());
+        mObserver.add(this);
+    }
+
+    @Override
+    void onDetach() {
+        mObserver.remove(this);
+        mObserver = null;
+    }
+
+    void onScrollChanged() {
+        int scrollX = mView.getScrollX();
+        int scrollY = mView.getScrollY();
+        if (scrollX == mScrollX && scrollY == mScrollY) {
+            return;
+        }
+        int distance = Math.abs(scrollX - mScrollX) + Math.abs(scrollY - mScrollY);
+        mScrollX = scrollX;
+        mScrollY = scrollY;
+        onScrolled(distance);
+    }
+}
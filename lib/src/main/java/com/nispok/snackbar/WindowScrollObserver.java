@@ -0,0 +1,63 @@
+package com.nispok.snackbar;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The one {@link ViewTreeObserver.OnScrollChangedListener} of a window, shared by every
+ * {@link ViewScrollAttachment} in it. It's kept as a tag of the window's root view, so it goes
+ * away with the window, and is only registered while at least one Snackbar is attached.
+ */
+final class WindowScrollObserver implements ViewTreeObserver.OnScrollChangedListener {
+
+    private final View mRoot;
+    private final List<ViewScrollAttachment> mAttachments = new ArrayList<ViewScrollAttachment>();
+    private ViewTreeObserver mObserver;
+
+    private WindowScrollObserver(View root) {
+        mRoot = root;
+    }
+
+    static WindowScrollObserver get(View root) {
+        WindowScrollObserver observer = (WindowScrollObserver) root.getTag(R.id.sb__scroll_observer);
+        if (observer == null) {
+            observer = new WindowScrollObserver(root);
+            root.setTag(R.id.sb__scroll_observer, observer);
+        }
+        return observer;
+    }
+
+    void add(ViewScrollAttachment attachment) {
+        if (mAttachments.isEmpty()) {
+            mObserver = mRoot.getViewTreeObserver();
+            mObserver.addOnScrollChangedListener(this);
+        }
+        mAttachments.add(attachment);
+    }
+
+    void remove(ViewScrollAttachment attachment) {
+        if (!mAttachments.remove(attachment) || !mAttachments.isEmpty()) {
+            return;
+        }
+        // The observer we registered with dies when the view is attached to a new window
+        if (!mObserver.isAlive()) {
+            mObserver = mRoot.getViewTreeObserver();
+        }
+        mObserver.removeOnScrollChangedListener(this);
+        mObserver = null;
+        mRoot.setTag(R.id.sb__scroll_observer, null);
+    }
+
+    @Override
+    public void onScrollChanged() {
+        // Attachments remove themselves when their Snackbar is dismissed
+        for (int i = mAttachments.size() - 1; i >= 0; i--) {
+            if (i < mAttachments.size()) {
+                mAttachments.get(i).onScrollChanged();
+            }
+        }
+    }
+}
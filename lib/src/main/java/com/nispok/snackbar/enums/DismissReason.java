@@ -0,0 +1,36 @@
+package com.nispok.snackbar.enums;
+
+/**
+ * Why a {@link com.nispok.snackbar.Snackbar} was dismissed
+ */
+public enum DismissReason {
+
+    /**
+     * Its duration ran out
+     */
+    TIMEOUT,
+    /**
+     * Its action button was clicked
+     */
+    ACTION,
+    /**
+     * It was swiped off the screen
+     */
+    SWIPE,
+    /**
+     * Another Snackbar was shown in its place
+     */
+    REPLACE,
+    /**
+     * The list it's attached to was scrolled
+     */
+    SCROLL,
+    /**
+     * {@link com.nispok.snackbar.Snackbar#dismiss()} was called
+     */
+    PROGRAMMATIC,
+    /**
+     * The {@link android.app.Activity} showing it was destroyed
+     */
+    HOST_DESTROYED
+}
@@ -0,0 +1,36 @@
+package com.nispok.snackbar.enums;
+
+/**
+ * The callbacks a {@link com.nispok.snackbar.Snackbar} delivers to its listeners
+ */
+public enum SnackbarEventType {
+
+    /**
+     * {@link com.nispok.snackbar.listeners.EventListener#onShow(com.nispok.snackbar.Snackbar)}
+     */
+    SHOW,
+    /**
+     * {@link com.nispok.snackbar.listeners.EventListener#onShowByReplace(com.nispok.snackbar.Snackbar)}
+     */
+    SHOW_BY_REPLACE,
+    /**
+     * {@link com.nispok.snackbar.listeners.EventListener#onShown(com.nispok.snackbar.Snackbar)}
+     */
+    SHOWN,
+    /**
+     * {@link com.nispok.snackbar.listeners.EventListener#onDismiss(com.nispok.snackbar.Snackbar)}
+     */
+    DISMISS,
+    /**
+     * {@link com.nispok.snackbar.listeners.EventListener#onDismissByReplace(com.nispok.snackbar.Snackbar)}
+     */
+    DISMISS_BY_REPLACE,
+    /**
+     * {@link com.nispok.snackbar.listeners.EventListener#onDismissed(com.nispok.snackbar.Snackbar)}
+     */
+    DISMISSED,
+    /**
+     * {@link com.nispok.snackbar.listeners.ActionClickListener#onActionClicked(com.nispok.snackbar.Snackbar)}
+     */
+    ACTION_CLICKED
+}
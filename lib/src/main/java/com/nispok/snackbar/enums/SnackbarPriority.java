@@ -0,0 +1,18 @@
+package com.nispok.snackbar.enums;
+
+/**
+ * How soon {@link com.nispok.snackbar.SnackbarManager} shows a
+ * {@link com.nispok.snackbar.Snackbar}
+ */
+public enum SnackbarPriority {
+
+    /**
+     * Shown right away
+     */
+    NORMAL,
+    /**
+     * Held until the main thread is idle, or until the manager's idle max delay has passed, so it
+     * doesn't take frames from a screen that's still inflating or animating
+     */
+    IDLE
+}
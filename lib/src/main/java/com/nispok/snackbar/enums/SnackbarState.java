@@ -0,0 +1,38 @@
+package com.nispok.snackbar.enums;
+
+/**
+ * Where a {@link com.nispok.snackbar.Snackbar} is in its lifecycle, see
+ * {@link com.nispok.snackbar.Snackbar#getState()}
+ */
+public enum SnackbarState {
+
+    /**
+     * Built but never shown
+     */
+    IDLE,
+    /**
+     * Waiting for {@link com.nispok.snackbar.SnackbarManager} to show it, e.g. for the main thread
+     * to be idle or for a place in the stack
+     */
+    QUEUED,
+    /**
+     * Added to its parent and animating in
+     */
+    ENTERING,
+    /**
+     * On screen, with its dismiss countdown running
+     */
+    SHOWN,
+    /**
+     * On screen, with its dismiss countdown paused by a touch or by its Activity being paused
+     */
+    PAUSED,
+    /**
+     * Dismissed and animating out
+     */
+    EXITING,
+    /**
+     * Removed from its parent. It can be shown again
+     */
+    FINISHED
+}
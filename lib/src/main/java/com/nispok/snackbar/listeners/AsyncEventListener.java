@@ -0,0 +1,16 @@
+package com.nispok.snackbar.listeners;
+
+import com.nispok.snackbar.SnackbarEvent;
+
+/**
+ * Receives {@link SnackbarEvent}s on the {@link java.util.concurrent.Executor} it was registered
+ * with, for work that shouldn't hold up the main thread like logging or writing to a database.
+ * Listeners that update the UI belong in an {@link EventListener}, which is called synchronously.
+ * <p/>
+ * Events are handed to the executor in the order they happen; a serial executor delivers them in
+ * that order.
+ */
+public interface AsyncEventListener {
+
+    void onEvent(SnackbarEvent event);
+}
@@ -0,0 +1,20 @@
+package com.nispok.snackbar.listeners;
+
+import com.nispok.snackbar.Snackbar;
+import com.nispok.snackbar.enums.SnackbarEventType;
+
+/**
+ * Told about {@link EventListener} and {@link ActionClickListener} callbacks that took longer
+ * than the budget set with
+ * {@link com.nispok.snackbar.SnackbarManager#setListenerBudget(long, ListenerBudgetCallback)}.
+ * Called on the main thread, right after the slow callback returns.
+ */
+public interface ListenerBudgetCallback {
+
+    /**
+     * @param snackbar      the {@link Snackbar} whose listener was slow
+     * @param event         the callback that was slow
+     * @param durationNanos how long the callback took, in nanoseconds
+     */
+    void onListenerOverBudget(Snackbar snackbar, SnackbarEventType event, long durationNanos);
+}
@@ -0,0 +1,22 @@
+package com.nispok.snackbar.listeners;
+
+import com.nispok.snackbar.Snackbar;
+
+/**
+ * Follows the position of a {@link Snackbar} frame by frame while it slides in, slides out or is
+ * swiped, so companion views like a floating action button can move along with
+ * {@link android.view.View#setTranslationY(float)} instead of changing their layout. Only called
+ * on API 11 and later.
+ */
+public interface OffsetListener {
+
+    /**
+     * Called right before a frame is drawn, whenever the Snackbar moved since the last call
+     *
+     * @param snackbar      the Snackbar that moved
+     * @param visibleHeight how many pixels of the Snackbar's height are on screen, from 0 before
+     *                      it slides in to its full height once shown, and back to 0 once removed
+     * @param translationX  how far the Snackbar is swiped horizontally
+     */
+    void onOffsetChanged(Snackbar snackbar, float visibleHeight, float translationX);
+}
@@ -0,0 +1,20 @@
+package com.nispok.snackbar.listeners;
+
+import com.nispok.snackbar.Snackbar;
+
+/**
+ * Implemented by an {@link android.app.Activity} to set the listeners of a {@link Snackbar} shown
+ * again after a configuration change. Listeners aren't carried over from the destroyed Activity,
+ * as they usually reference it
+ */
+public interface RestoreListener {
+
+    /**
+     * Called on the main thread once the recreated Activity starts, before {@code snackbar} is
+     * shown in it
+     *
+     * @param snackbar a new Snackbar with the text, action, duration and time left of the one
+     *                 that was showing
+     */
+    void onSnackbarRestored(Snackbar snackbar);
+}
@@ -0,0 +1,19 @@
+package com.nispok.snackbar.listeners;
+
+import com.nispok.snackbar.Snackbar;
+import com.nispok.snackbar.enums.DismissReason;
+
+/**
+ * Tells how a {@link Snackbar} ended, once per show. A lighter alternative to an
+ * {@link EventListener} when only the outcome matters
+ */
+public interface ResultListener {
+
+    /**
+     * Called on the main thread once {@code snackbar} is gone
+     *
+     * @param snackbar the Snackbar that was dismissed
+     * @param reason   the one reason it was dismissed for
+     */
+    void onResult(Snackbar snackbar, DismissReason reason);
+}
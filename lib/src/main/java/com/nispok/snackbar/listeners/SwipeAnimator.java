@@ -0,0 +1,213 @@
+package com.nispok.snackbar.listeners;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.view.Choreographer;
+
+/**
+ * Moves a swiped view along the x axis, picking up the velocity the finger had when it let go: a
+ * critically damped spring settles it back to 0 and friction carries it away when dismissed.
+ * Frames come from the {@link Choreographer} on Jelly Bean and later, and from a {@link Handler}
+ * before that.
+ */
+class SwipeAnimator {
+
+    interface Listener {
+        /**
+         * Called on every frame with the new translation
+         */
+        void onAnimationFrame(float translationX);
+
+        /**
+         * Called when the animation comes to rest, but not when it's cancelled
+         *
+         * @param dismissed whether the view was carried away or settled back
+         */
+        void onAnimationEnd(boolean dismissed);
+    }
+
+    // Angular frequency of the settle spring, in 1/s
+    private static final float SPRING_FREQUENCY = 20f;
+    // Friction slowing down a dismissed view, in 1/s
+    private static final float FRICTION = 4f;
+    // A dismissed view is sent at least this far past its target, so it gets there in ~0.3s
+    private static final float MIN_DISMISS_OVERSHOOT = 1.5f;
+    private static final float REST_DISTANCE = 0.5f;
+    private static final float REST_VELOCITY = 10f;
+    private static final long FALLBACK_FRAME_DELAY = 16;
+
+    private final Listener mListener;
+    private final FrameScheduler mFrames;
+
+    private boolean mRunning;
+    private boolean mDismissing;
+    private float mStartX;
+    private float mStartVelocity;
+    private float mTargetX;
+    private long mStartNanos;
+    private long mLastFrameNanos;
+    private int mFrameCount;
+    private long mLongestFrameNanos;
+
+    SwipeAnimator(Listener listener) {
+        mListener = listener;
+        mFrames = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new ChoreographerFrameScheduler(this) : new HandlerFrameScheduler(this);
+    }
+
+    /**
+     * Springs the view back to 0 from {@code fromX}, starting at {@code velocityX} px/s
+     */
+    void settle(float fromX, float velocityX) {
+        start(fromX, velocityX, 0, false);
+    }
+
+    /**
+     * Carries the view to {@code toX}, keeping {@code velocityX} if it's fast enough to get there
+     */
+    void dismiss(float fromX, float velocityX, float toX) {
+        float distance = toX - fromX;
+        float minSpeed = MIN_DISMISS_OVERSHOOT * FRICTION * Math.abs(distance);
+        if (velocityX * distance <= 0 || Math.abs(velocityX) < minSpeed) {
+            velocityX = Math.signum(distance) * minSpeed;
+        }
+        start(fromX, velocityX, toX, true);
+    }
+
+    /**
+     * Stops the animation where it is, without calling {@link Listener#onAnimationEnd(boolean)}
+     */
+    void cancel() {
+        if (mRunning) {
+            mRunning = false;
+            mFrames.remove();
+        }
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * @return the number of frames of the current or last animation
+     */
+    int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return the longest time between two frames of the current or last animation, counting from
+     * its start
+     */
+    long getLongestFrameNanos() {
+        return mLongestFrameNanos;
+    }
+
+    private void start(float fromX, float velocityX, float toX, boolean dismissing) {
+        cancel();
+        mStartX = fromX;
+        mStartVelocity = velocityX;
+        mTargetX = toX;
+        mDismissing = dismissing;
+        mStartNanos = System.nanoTime();
+        mLastFrameNanos = mStartNanos;
+        mFrameCount = 0;
+        mLongestFrameNanos = 0;
+        mRunning = true;
+        mFrames.post();
+    }
+
+    void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        mFrameCount++;
+        mLongestFrameNanos = Math.max(mLongestFrameNanos, frameTimeNanos - mLastFrameNanos);
+        mLastFrameNanos = frameTimeNanos;
+
+        float t = Math.max(0, frameTimeNanos - mStartNanos) / 1e9f;
+        float x;
+        boolean finished;
+        if (mDismissing) {
+            x = mStartX + mStartVelocity / FRICTION * (1 - (float) Math.exp(-FRICTION * t));
+            finished = mTargetX > mStartX ? x >= mTargetX : x <= mTargetX;
+            if (finished) {
+                x = mTargetX;
+            }
+        } else {
+            float decay = (float) Math.exp(-SPRING_FREQUENCY * t);
+            float b = mStartVelocity + SPRING_FREQUENCY * mStartX;
+            x = (mStartX + b * t) * decay;
+            float velocity = (mStartVelocity - SPRING_FREQUENCY * b * t) * decay;
+            finished = Math.abs(x) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY;
+            if (finished) {
+                x = 0;
+            }
+        }
+
+        mListener.onAnimationFrame(x);
+        if (finished) {
+            mRunning = false;
+            mListener.onAnimationEnd(mDismissing);
+        } else {
+            mFrames.post();
+        }
+    }
+
+    private abstract static class FrameScheduler {
+        abstract void post();
+
+        abstract void remove();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerFrameScheduler extends FrameScheduler
+            implements Choreographer.FrameCallback {
+        private final SwipeAnimator mAnimator;
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        ChoreographerFrameScheduler(SwipeAnimator animator) {
+            mAnimator = animator;
+        }
+
+        @Override
+        void post() {
+            mChoreographer.postFrameCallback(this);
+        }
+
+        @Override
+        void remove() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mAnimator.doFrame(frameTimeNanos);
+        }
+    }
+
+    private static class HandlerFrameScheduler extends FrameScheduler implements Runnable {
+        private final SwipeAnimator mAnimator;
+        private final Handler mHandler = new Handler();
+
+        HandlerFrameScheduler(SwipeAnimator animator) {
+            mAnimator = animator;
+        }
+
+        @Override
+        void post() {
+            mHandler.postDelayed(this, FALLBACK_FRAME_DELAY);
+        }
+
+        @Override
+        void remove() {
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            mAnimator.doFrame(System.nanoTime());
+        }
+    }
+}
@@ -16,8 +16,6 @@
 
 package com.nispok.snackbar.listeners;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
@@ -36,7 +34,6 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
     private int mSlop;
     private int mMinFlingVelocity;
     private int mMaxFlingVelocity;
-    private long mAnimationTime;
 
     // Fixed properties
     private View mView;
@@ -51,6 +48,25 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
     private Object mToken;
     private VelocityTracker mVelocityTracker;
     private float mTranslationX;
+    private float mStartTranslationX;
+    private boolean mHasSwipeLayer;
+    private int mLayerTypeBeforeSwipe = View.LAYER_TYPE_NONE;
+
+    // Settles or dismisses the view once released, picking up the finger's velocity
+    private final SwipeAnimator mAnimator = new SwipeAnimator(new SwipeAnimator.Listener() {
+        @Override
+        public void onAnimationFrame(float translationX) {
+            setSwipeTranslation(translationX);
+        }
+
+        @Override
+        public void onAnimationEnd(boolean dismissed) {
+            restoreLayerType();
+            if (dismissed) {
+                performDismiss();
+            }
+        }
+    });
 
     /**
      * The callback interface used by {@link SwipeDismissTouchListener} to inform its client
@@ -92,8 +108,6 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
         mSlop = vc.getScaledTouchSlop();
         mMinFlingVelocity = vc.getScaledMinimumFlingVelocity() * 16;
         mMaxFlingVelocity = vc.getScaledMaximumFlingVelocity();
-        mAnimationTime = view.getContext().getResources().getInteger(
-                android.R.integer.config_shortAnimTime);
         mView = view;
         mToken = token;
         mCallbacks = callbacks;
@@ -117,6 +131,16 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
                     mCallbacks.pauseTimer(true);
                     mVelocityTracker = VelocityTracker.obtain();
                     mVelocityTracker.addMovement(motionEvent);
+
+                    // Catch a view that's still settling or flying away and keep dragging it
+                    // from where it is
+                    boolean caught = mAnimator.isRunning();
+                    mAnimator.cancel();
+                    mStartTranslationX = mView.getTranslationX();
+                    if (caught && mStartTranslationX != 0) {
+                        startSwiping(motionEvent, 0);
+                        setSwipeTranslation(mStartTranslationX);
+                    }
                 }
                 return false;
             }
@@ -127,49 +151,38 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
                 }
 
                 mCallbacks.pauseTimer(false);
-                float deltaX = motionEvent.getRawX() - mDownX;
+                float translationX = mView.getTranslationX();
                 mVelocityTracker.addMovement(motionEvent);
-                mVelocityTracker.computeCurrentVelocity(1000);
+                mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
                 float velocityX = mVelocityTracker.getXVelocity();
                 float absVelocityX = Math.abs(velocityX);
                 float absVelocityY = Math.abs(mVelocityTracker.getYVelocity());
                 boolean dismiss = false;
                 boolean dismissRight = false;
-                if (Math.abs(deltaX) > mViewWidth / 2 && mSwiping) {
+                if (Math.abs(translationX) > mViewWidth / 2 && mSwiping) {
                     dismiss = true;
-                    dismissRight = deltaX > 0;
+                    dismissRight = translationX > 0;
                 } else if (mMinFlingVelocity <= absVelocityX && absVelocityX <= mMaxFlingVelocity
                         && absVelocityY < absVelocityX
                         && absVelocityY < absVelocityX && mSwiping) {
                     // dismiss only if flinging in the same direction as dragging
-                    dismiss = (velocityX < 0) == (deltaX < 0);
-                    dismissRight = mVelocityTracker.getXVelocity() > 0;
+                    dismiss = (velocityX < 0) == (translationX < 0);
+                    dismissRight = velocityX > 0;
                 }
                 if (dismiss) {
                     // dismiss
-                    mView.animate()
-                            .translationX(dismissRight ? mViewWidth : -mViewWidth)
-                            .alpha(0)
-                            .setDuration(mAnimationTime)
-                            .setListener(new AnimatorListenerAdapter() {
-                                @Override
-                                public void onAnimationEnd(Animator animation) {
-                                    performDismiss();
-                                }
-                            });
+                    mAnimator.dismiss(translationX, velocityX,
+                            dismissRight ? mViewWidth : -mViewWidth);
                 } else if (mSwiping) {
                     // cancel
-                    mView.animate()
-                            .translationX(0)
-                            .alpha(1)
-                            .setDuration(mAnimationTime)
-                            .setListener(null);
+                    mAnimator.settle(translationX, velocityX);
                 }
                 if (mVelocityTracker != null) {
                     mVelocityTracker.recycle();
                     mVelocityTracker = null;
                 }
                 mTranslationX = 0;
+                mStartTranslationX = 0;
                 mDownX = 0;
                 mDownY = 0;
                 mSwiping = false;
@@ -181,14 +194,13 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
                     break;
                 }
 
-                mView.animate()
-                        .translationX(0)
-                        .alpha(1)
-                        .setDuration(mAnimationTime)
-                        .setListener(null);
+                if (mSwiping) {
+                    mAnimator.settle(mView.getTranslationX(), 0);
+                }
                 mVelocityTracker.recycle();
                 mVelocityTracker = null;
                 mTranslationX = 0;
+                mStartTranslationX = 0;
                 mDownX = 0;
                 mDownY = 0;
                 mSwiping = false;
@@ -203,29 +215,16 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
                 mVelocityTracker.addMovement(motionEvent);
                 float deltaX = motionEvent.getRawX() - mDownX;
                 float deltaY = motionEvent.getRawY() - mDownY;
-                if (Math.abs(deltaX) > mSlop && Math.abs(deltaY) < Math.abs(deltaX) / 2) {
-                    mSwiping = true;
-                    mSwipingSlop = (deltaX > 0 ? mSlop : -mSlop);
-
-                    if(mView.getParent() != null) {
-                        mView.getParent().requestDisallowInterceptTouchEvent(true);
-                    }
-
-                    // Cancel listview's touch
-                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
-                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
-                            (motionEvent.getActionIndex() <<
-                                    MotionEvent.ACTION_POINTER_INDEX_SHIFT));
-                    mView.onTouchEvent(cancelEvent);
-                    cancelEvent.recycle();
+                if (!mSwiping && Math.abs(deltaX) > mSlop
+                        && Math.abs(deltaY) < Math.abs(deltaX) / 2) {
+                    startSwiping(motionEvent, deltaX > 0 ? mSlop : -mSlop);
                 }
 
                 if (mSwiping) {
+                    // Relative to where the view was when the gesture started, which isn't 0
+                    // when a settling view was caught
                     mTranslationX = deltaX;
-                    mView.setTranslationX(deltaX - mSwipingSlop);
-                    // TODO: use an ease-out interpolator or such
-                    mView.setAlpha(Math.max(0f, Math.min(1f,
-                            1f - 2f * Math.abs(deltaX) / mViewWidth)));
+                    setSwipeTranslation(mStartTranslationX + deltaX - mSwipingSlop);
                     return true;
                 }
                 break;
@@ -234,6 +233,76 @@ public class SwipeDismissTouchListener implements View.OnTouchListener {
         return false;
     }
 
+    /**
+     * Stops a settle or dismiss animation where it is, without dismissing the view
+     */
+    public void cancelAnimation() {
+        mAnimator.cancel();
+        restoreLayerType();
+    }
+
+    /**
+     * @return whether the view is settling back or being dismissed after a swipe
+     */
+    public boolean isAnimating() {
+        return mAnimator.isRunning();
+    }
+
+    /**
+     * @return the number of frames of the current or last settle/dismiss animation
+     */
+    public int getAnimationFrameCount() {
+        return mAnimator.getFrameCount();
+    }
+
+    /**
+     * @return the longest time between two frames of the current or last settle/dismiss
+     * animation, in nanoseconds
+     */
+    public long getLongestAnimationFrameNanos() {
+        return mAnimator.getLongestFrameNanos();
+    }
+
+    /**
+     * Only done once per gesture, when the swipe starts or a settling view is caught
+     */
+    private void startSwiping(MotionEvent motionEvent, int swipingSlop) {
+        mSwiping = true;
+        mSwipingSlop = swipingSlop;
+
+        if (mView.getParent() != null) {
+            mView.getParent().requestDisallowInterceptTouchEvent(true);
+        }
+
+        // Cancel listview's touch
+        MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
+        cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
+                (motionEvent.getActionIndex() <<
+                        MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+        mView.onTouchEvent(cancelEvent);
+        cancelEvent.recycle();
+
+        // Translation and alpha change on every move, let the GPU compose them
+        if (!mHasSwipeLayer) {
+            mLayerTypeBeforeSwipe = mView.getLayerType();
+            mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            mHasSwipeLayer = true;
+        }
+    }
+
+    private void setSwipeTranslation(float translationX) {
+        mView.setTranslationX(translationX);
+        mView.setAlpha(Math.max(0f, Math.min(1f,
+                1f - 2f * Math.abs(translationX) / mViewWidth)));
+    }
+
+    private void restoreLayerType() {
+        if (mHasSwipeLayer) {
+            mView.setLayerType(mLayerTypeBeforeSwipe, null);
+            mHasSwipeLayer = false;
+        }
+    }
+
     private void performDismiss() {
         mCallbacks.onDismiss(mView, mToken);
     }
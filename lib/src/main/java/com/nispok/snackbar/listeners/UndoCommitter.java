@@ -0,0 +1,20 @@
+package com.nispok.snackbar.listeners;
+
+import java.util.List;
+
+/**
+ * Carries out the operations of an {@link com.nispok.snackbar.UndoBuffer} that can't be undone
+ * anymore, e.g. with a single bulk delete
+ *
+ * @param <T> the type of the operations
+ */
+public interface UndoCommitter<T> {
+
+    /**
+     * Called on the buffer's {@link java.util.concurrent.Executor} with the operations whose
+     * Snackbars went away without being undone, oldest first
+     *
+     * @param operations the operations to commit, never empty
+     */
+    void commit(List<T> operations);
+}